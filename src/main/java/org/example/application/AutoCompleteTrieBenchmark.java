@@ -0,0 +1,292 @@
+package org.example.application;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the memory use and the speed of {@link AutoCompleteTrie} on generated vocabularies.
+ * <p>
+ * Every measurement goes through the public API of the component, the same way the editor uses it:
+ * keywords are loaded with {@link AutoCompleteTrie#loadKeywords(List)} and searched with the
+ * {@code suggest} methods. Memory figures are computed from the size of the nodes
+ * ({@link AutoCompleteTrie#estimateTrieBytes()}) rather than read from the heap, so they do not
+ * depend on when the garbage collector runs.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     java -cp target/classes org.example.application.AutoCompleteTrieBenchmark
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public final class AutoCompleteTrieBenchmark {
+
+    private static final int LIMIT = AutoCompleteTrie.DEFAULT_SUGGESTION_LIMIT;
+    private static final int ROUNDS = 1000;
+
+    private AutoCompleteTrieBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        measureMemory(100_000);
+        measureCache();
+        measureBulkLoad(1_000_000);
+        measureMinimized();
+    }
+
+    /**
+     * Loads a generated vocabulary and prints its estimated heap usage next to what the same nodes
+     * would have cost with a 26-slot child array each, followed by the speed of the common queries.
+     *
+     * @param wordCount The number of words to generate.
+     */
+    private static void measureMemory(int wordCount) {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            int length = 4 + random.nextInt(12);
+            StringBuilder sb = new StringBuilder(length);
+            for (int j = 0; j < length; j++) {
+                // Skewed towards the first letters, like real identifiers
+                sb.append((char) ('a' + Math.min(25, (int) Math.abs(random.nextGaussian() * 7))));
+            }
+            words.add(sb.toString());
+        }
+        AutoCompleteTrie autoComplete = new AutoCompleteTrie(0);
+        autoComplete.loadKeywords(words).join();
+
+        // Same rules as the estimate: a 24-byte node (header, flag, reference) and its array
+        int nodes = autoComplete.countNodes();
+        long estimated = autoComplete.estimateTrieBytes();
+        long lettersLayout = nodes * (24L + 16L + 26L * 4L);
+        long identifierLayout = nodes * (24L + 16L + 64L * 4L); // one slot per ASCII identifier character
+        System.out.printf("[AutoCompleteTrieBenchmark] %d words, %d nodes: ~%d KB, ~%d KB with 26-slot arrays (%s),"
+                        + " ~%d KB with 64-slot arrays (%s)%n",
+                wordCount, nodes, estimated / 1024,
+                lettersLayout / 1024, ratioOf(lettersLayout, estimated),
+                identifierLayout / 1024, ratioOf(identifierLayout, estimated));
+
+        // A one-letter prefix is the worst case for the old full-subtree collection
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            autoComplete.suggest(String.valueOf((char) ('a' + i % 26)), LIMIT);
+        }
+        System.out.printf("[AutoCompleteTrieBenchmark] top-%d query for a one-letter prefix: %d us on average%n",
+                LIMIT, (System.nanoTime() - start) / ROUNDS / 1000);
+
+        // Misspell real words by swapping two adjacent characters
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            char[] typo = words.get(i).toCharArray();
+            char swap = typo[1];
+            typo[1] = typo[2];
+            typo[2] = swap;
+            autoComplete.suggestFuzzy(new String(typo), 1, LIMIT);
+        }
+        System.out.printf("[AutoCompleteTrieBenchmark] fuzzy top-%d query for a misspelled word: %d us on average%n",
+                LIMIT, (System.nanoTime() - start) / ROUNDS / 1000);
+
+        // One page from the lazy iterator versus walking every match of a one-letter prefix
+        start = System.nanoTime();
+        Iterator<String> page = autoComplete.iterateSuggestions("e");
+        for (int i = 0; i < LIMIT && page.hasNext(); i++) {
+            page.next();
+        }
+        long firstPage = System.nanoTime() - start;
+        start = System.nanoTime();
+        long all = autoComplete.streamSuggestions("e").count();
+        long everything = System.nanoTime() - start;
+        System.out.printf("[AutoCompleteTrieBenchmark] first page of 'e': %d us lazily, all %d matches: %d us%n",
+                firstPage / 1000, all, everything / 1000);
+
+        // Typing words one character at a time, then deleting them again
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            String word = words.get(i);
+            for (int end = 1; end <= word.length(); end++) {
+                autoComplete.suggest(word.substring(0, end), LIMIT);
+            }
+            for (int end = word.length() - 1; end >= 1; end--) {
+                autoComplete.suggest(word.substring(0, end), LIMIT);
+            }
+        }
+        System.out.printf("[AutoCompleteTrieBenchmark] typing and deleting %d words: %d ms%n",
+                ROUNDS, (System.nanoTime() - start) / 1_000_000);
+
+        measureMappedDictionary(autoComplete);
+        autoComplete.shutdown();
+    }
+
+    /**
+     * Exports the words of a component to a dictionary file, mounts it on an empty component and
+     * prints how long opening the file and querying it take.
+     *
+     * @param loaded The component holding the words.
+     */
+    private static void measureMappedDictionary(AutoCompleteTrie loaded) {
+        AutoCompleteTrie autoComplete = new AutoCompleteTrie(0);
+        try {
+            Path file = Files.createTempFile("autocomplete", ".dict");
+            loaded.exportDictionary(file, "benchmark");
+            long start = System.nanoTime();
+            MappedDictionary mapped = MappedDictionary.open(file);
+            long openMicros = (System.nanoTime() - start) / 1000;
+            autoComplete.mountDictionary(mapped);
+            start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                autoComplete.suggest(String.valueOf((char) ('a' + i % 26)), LIMIT);
+            }
+            System.out.printf("[AutoCompleteTrieBenchmark] mapped dictionary: %d KB file opened in %d us,"
+                            + " top-%d query for a one-letter prefix: %d us on average%n",
+                    mapped.getSizeInBytes() / 1024, openMicros, LIMIT, (System.nanoTime() - start) / ROUNDS / 1000);
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        autoComplete.shutdown();
+    }
+
+    /**
+     * Replays a typing session where a few prefixes come back often and prints the cache statistics.
+     */
+    private static void measureCache() {
+        AutoCompleteTrie autoComplete = new AutoCompleteTrie(64);
+        autoComplete.loadKeywords(Arrays.asList("public", "private", "protected", "package", "static",
+                "String", "StringBuilder", "return", "res", "result", "super", "switch")).join();
+        Random random = new Random(7);
+        String[] prefixes = {"pu", "st", "re", "pr", "p", "s", "r", "res", "Str", "sw", "su", "pa"};
+        for (int i = 0; i < 10_000; i++) {
+            // Skewed: the first prefixes are typed much more often than the last ones
+            int index = Math.min(prefixes.length - 1, (int) Math.abs(random.nextGaussian() * 3));
+            autoComplete.suggest(prefixes[index], LIMIT);
+            if (i == 5_000) {
+                autoComplete.loadKeywords(List.of("record")).join();
+            }
+        }
+        System.out.println("[AutoCompleteTrieBenchmark] " + autoComplete.getSuggestionCache());
+        autoComplete.shutdown();
+    }
+
+    /**
+     * Loads a large generated vocabulary and prints the median load time, then queries it with a time budget.
+     * A load also builds the camel-hump index of the words, so it takes longer than the Trie build alone.
+     *
+     * @param wordCount The number of identifiers to generate.
+     */
+    private static void measureBulkLoad(int wordCount) {
+        Random random = new Random(1);
+        String[] parts = {"get", "set", "is", "Value", "Name", "List", "Map", "Count", "Index", "Item",
+                "Buffer", "Stream", "Node", "Tree", "Size", "Handler", "Factory", "Builder", "Util", "Id"};
+        List<String> words = new ArrayList<>(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int p = 1 + random.nextInt(3); p > 0; p--) {
+                sb.append(parts[random.nextInt(parts.length)]);
+            }
+            words.add(sb.append(i).toString());
+        }
+
+        // Two warm-up loads, then the median of five, which the garbage collector's timing shifts least
+        long[] millis = new long[5];
+        AutoCompleteTrie autoComplete = null;
+        for (int run = -2; run < millis.length; run++) {
+            autoComplete = null; // let the previous instance be collected during the load
+            autoComplete = new AutoCompleteTrie(0);
+            long start = System.nanoTime();
+            autoComplete.loadKeywords(words).join();
+            if (run >= 0) {
+                millis[run] = (System.nanoTime() - start) / 1_000_000;
+            }
+        }
+        Arrays.sort(millis);
+        System.out.printf("[AutoCompleteTrieBenchmark] load of %d identifiers (%d nodes): median %d ms (%d to %d ms over %d runs)%n",
+                wordCount, autoComplete.countNodes(), millis[millis.length / 2], millis[0], millis[millis.length - 1],
+                millis.length);
+        measureBudget(autoComplete);
+        autoComplete.shutdown();
+    }
+
+    /**
+     * Queries one-letter prefixes of a large vocabulary with a small time budget and prints how many
+     * results were partial and how long the queries took at most.
+     *
+     * @param autoComplete The component holding the vocabulary.
+     */
+    private static void measureBudget(AutoCompleteTrie autoComplete) {
+        Duration budget = Duration.ofMillis(1);
+        int partial = 0;
+        long slowest = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            SuggestionResult result = autoComplete.suggest(String.valueOf((char) ('a' + i % 26)), 100, budget);
+            slowest = Math.max(slowest, System.nanoTime() - start);
+            if (result.isPartial()) {
+                partial++;
+            }
+        }
+        System.out.printf("[AutoCompleteTrieBenchmark] top-100 queries with a %d ms budget: %d of %d partial, slowest %d us%n",
+                budget.toMillis(), partial, ROUNDS, slowest / 1000);
+    }
+
+    /**
+     * Loads the JDK type names (or, without a JDK image, a generated vocabulary) as a plain Trie and
+     * as a minimized word graph and prints the node count and the estimated heap of both.
+     */
+    private static void measureMinimized() {
+        List<String> words = new ArrayList<>();
+        for (JdkTypeIndexer.JdkType type : new JdkTypeIndexer(JdkTypeIndexer.DEFAULT_CACHE_FILE).scan()) {
+            words.add(type.getSimpleName());
+        }
+        if (words.isEmpty()) {
+            String[] parts = {"Abstract", "Default", "Concurrent", "Linked", "Hash", "Tree", "Array", "Map", "List",
+                    "Set", "Queue", "Buffer", "Stream", "Reader", "Writer", "Factory", "Builder", "Exception"};
+            Random random = new Random(3);
+            for (int i = 0; i < 50_000; i++) {
+                StringBuilder sb = new StringBuilder();
+                for (int p = 2 + random.nextInt(3); p > 0; p--) {
+                    sb.append(parts[random.nextInt(parts.length)]);
+                }
+                words.add(sb.toString());
+            }
+        }
+
+        int[] nodes = new int[2];
+        long[] bytes = new long[2];
+        long[] millis = new long[2];
+        for (int mode = 0; mode < 2; mode++) {
+            AutoCompleteTrie autoComplete = new AutoCompleteTrie(0, mode == 1);
+            long start = System.nanoTime();
+            autoComplete.loadKeywords(words).join();
+            millis[mode] = (System.nanoTime() - start) / 1_000_000;
+            nodes[mode] = autoComplete.countNodes();
+            bytes[mode] = autoComplete.estimateTrieBytes();
+            autoComplete.shutdown();
+        }
+        System.out.printf("[AutoCompleteTrieBenchmark] %d words: plain Trie %d nodes, ~%d KB, %d ms;"
+                        + " minimized %d nodes (%s), ~%d KB (%s), %d ms%n",
+                words.size(), nodes[0], bytes[0] / 1024, millis[0],
+                nodes[1], percentOf(nodes[1], nodes[0]), bytes[1] / 1024, percentOf(bytes[1], bytes[0]), millis[1]);
+    }
+
+    /**
+     * Formats how many times larger a value is than a baseline, or "n/a" if the baseline is not positive.
+     */
+    private static String ratioOf(long value, long baseline) {
+        return baseline > 0 ? String.format("%.1fx", (double) value / baseline) : "n/a";
+    }
+
+    /**
+     * Formats a value as a percentage of a baseline, or "n/a" if the baseline is not positive.
+     */
+    private static String percentOf(long value, long baseline) {
+        return baseline > 0 ? String.format("%.1f%%", 100.0 * value / baseline) : "n/a";
+    }
+}
@@ -4,6 +4,8 @@ import javax.swing.*;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -32,6 +34,11 @@ import java.util.concurrent.TimeUnit;
  */
 public class AutoSaveService {
 
+    /**
+     * The file the content is saved to, in the current working directory.
+     */
+    public static final Path OUTPUT_FILE = Paths.get("autosave_output.txt");
+
     private ScheduledExecutorService scheduler;
 
     private final JTextPane textPane;
@@ -86,7 +93,7 @@ public class AutoSaveService {
     private void saveToFile() {
         String content = textPane.getText();
 
-        try (PrintWriter out = new PrintWriter(new FileWriter("autosave_output.txt"))) {
+        try (PrintWriter out = new PrintWriter(new FileWriter(OUTPUT_FILE.toFile()))) {
             out.println(content);
             System.out.println("[AutoSaveService] A salvat conținutul cu succes.");
         } catch (IOException e) {
@@ -0,0 +1,487 @@
+package org.example.application;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Predicts the next token from the one before it, e.g. {@code static} or {@code class} after
+ * {@code public}, and the types recently created after {@code new}.
+ * <p>
+ * The model counts bigrams: how often each identifier or keyword directly follows another one on
+ * the same line, ignoring the punctuation between them. Tokens are numbered as they are first seen,
+ * and a bigram is stored under a single {@code long} key made of the two token numbers, in an
+ * open-addressing table of primitive keys and counts, so no object is created per bigram. Tokens
+ * are found by an open-addressing table of their numbers as well. For every token the numbers of
+ * the tokens seen after it are kept in an {@code int} array, which is all a prediction has to look at.
+ * <p>
+ * Counts can be added and taken away again, so a {@link DocumentIdentifierIndex} can keep the bigrams
+ * of the lines it indexes up to date as they are edited, while the history of earlier sessions is
+ * added once with {@link #train(String)}. Editing a line counts the half-typed identifiers on it for
+ * a moment, so a bigram whose count drops to zero is removed, and a token that no remaining bigram
+ * uses is forgotten and its number reused; the model only holds what is still in the text.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     BigramModel model = new BigramModel();
+ *     model.train("public static void main(String[] args)");
+ *     List&lt;String&gt; next = model.predict("public", "", 5); // [static]
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public class BigramModel {
+
+    private static final int[] NO_SUCCESSORS = new int[0];
+
+    private final TokenIds tokenIds = new TokenIds();   // token -> token number
+    private String[] tokens = new String[64];           // token number -> token, null if the number is free
+    private int[][] successors = new int[64][];         // token number -> numbers of the tokens seen after it
+    private int[] successorCounts = new int[64];        // token number -> used length of its successor array
+    private int[] references = new int[64];             // token number -> number of counted bigrams using it
+    private int[] freeIds = new int[16];                // numbers of forgotten tokens, reused first
+    private int freeIdCount;
+    private int nextId;                                 // lowest number never used
+    private final LongIntMap counts = new LongIntMap(); // bigram key -> count, only positive counts
+
+    /**
+     * Adds the bigrams found in a text, one line at a time, e.g. a file saved in an earlier session.
+     *
+     * @param text The text.
+     */
+    public void train(String text) {
+        for (String line : text.split("\n")) {
+            add(DocumentIdentifierIndex.tokenize(line), 1);
+        }
+    }
+
+    /**
+     * Adds the bigrams of a text file, if it exists.
+     *
+     * @param file The file.
+     */
+    public void train(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            train(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Adds the bigrams of a text file on a background thread.
+     *
+     * @param file The file; nothing happens if it does not exist.
+     */
+    public void trainInBackground(Path file) {
+        SharedExecutors.background().execute(() -> train(file));
+    }
+
+    /**
+     * Adds (or, with a negative delta, removes) the bigrams of consecutive tokens.
+     * A bigram whose count drops to zero is removed, and so is a token no bigram uses any more.
+     *
+     * @param lineTokens The tokens of one line, in order.
+     * @param delta      The amount to add to the count of every bigram.
+     */
+    synchronized void add(String[] lineTokens, int delta) {
+        for (int i = 1; i < lineTokens.length; i++) {
+            // Taking counts away never needs a new token number
+            int previous = delta > 0 ? idOf(lineTokens[i - 1]) : tokenIds.get(lineTokens[i - 1]);
+            int next = delta > 0 ? idOf(lineTokens[i]) : tokenIds.get(lineTokens[i]);
+            if (previous < 0 || next < 0) {
+                continue;
+            }
+            long key = key(previous, next);
+            int count = counts.get(key);
+            int newCount = Math.max(0, count + delta);
+            if (count == 0 && newCount > 0) {
+                addSuccessor(previous, next);
+                references[previous]++;
+                references[next]++;
+                counts.put(key, newCount);
+            } else if (count > 0 && newCount == 0) {
+                counts.remove(key);
+                removeSuccessor(previous, next);
+                release(previous);
+                release(next);
+            } else if (count > 0) {
+                counts.put(key, newCount);
+            }
+        }
+    }
+
+    /**
+     * Returns the tokens most often seen after the given one that start with a prefix, ignoring case.
+     *
+     * @param previous The token before the caret.
+     * @param prefix   The part of the next token typed so far, possibly empty.
+     * @param limit    The maximum number of tokens to return.
+     * @return Up to {@code limit} tokens, the most frequent first, then in alphabetical order.
+     */
+    public synchronized List<String> predict(String previous, String prefix, int limit) {
+        int id = tokenIds.get(previous);
+        if (id < 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        int[] next = successors[id];
+        int size = successorCounts[id];
+        // Candidates as (count, token number) pairs in one long each, sorted without boxing
+        long[] candidates = new long[size];
+        int found = 0;
+        for (int i = 0; i < size; i++) {
+            int count = counts.get(key(id, next[i]));
+            String token = tokens[next[i]];
+            if (!token.equals(prefix) && token.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                candidates[found++] = key(count, next[i]);
+            }
+        }
+        Arrays.sort(candidates, 0, found);
+        List<String> result = new ArrayList<>(Math.min(limit, found));
+        for (int i = found - 1; i >= 0 && result.size() < limit; i--) {
+            int count = (int) (candidates[i] >>> 32);
+            // Equal counts are listed alphabetically; the range is short, so a nested scan is enough
+            int start = i;
+            while (start > 0 && (int) (candidates[start - 1] >>> 32) == count) {
+                start--;
+            }
+            List<String> tied = new ArrayList<>(i - start + 1);
+            for (int j = start; j <= i; j++) {
+                tied.add(tokens[(int) candidates[j]]);
+            }
+            tied.sort(null);
+            for (String token : tied) {
+                if (result.size() < limit) {
+                    result.add(token);
+                }
+            }
+            i = start;
+        }
+        return result;
+    }
+
+    /**
+     * Returns how often a token was seen directly after another one.
+     *
+     * @param previous The first token.
+     * @param next     The token following it.
+     * @return The count, 0 if the bigram was never seen.
+     */
+    public synchronized int getCount(String previous, String next) {
+        int a = tokenIds.get(previous);
+        int b = tokenIds.get(next);
+        return a < 0 || b < 0 ? 0 : counts.get(key(a, b));
+    }
+
+    /**
+     * Returns the number of distinct bigrams with a positive count.
+     *
+     * @return The number of bigrams.
+     */
+    public synchronized int size() {
+        return counts.size();
+    }
+
+    /**
+     * Returns the number of distinct tokens used by the bigrams with a positive count.
+     *
+     * @return The number of tokens.
+     */
+    public synchronized int getTokenCount() {
+        return tokenIds.size();
+    }
+
+    private static long key(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the number of a token, numbering it if it is new.
+     */
+    private int idOf(String token) {
+        int id = tokenIds.get(token);
+        if (id >= 0) {
+            return id;
+        }
+        if (freeIdCount > 0) {
+            id = freeIds[--freeIdCount];
+        } else {
+            id = nextId++;
+            if (id == tokens.length) {
+                tokens = Arrays.copyOf(tokens, id * 2);
+                successors = Arrays.copyOf(successors, id * 2);
+                successorCounts = Arrays.copyOf(successorCounts, id * 2);
+                references = Arrays.copyOf(references, id * 2);
+            }
+        }
+        tokens[id] = token;
+        successors[id] = NO_SUCCESSORS;
+        tokenIds.add(id);
+        return id;
+    }
+
+    /**
+     * Takes away one bigram using a token, forgetting the token when it was the last one.
+     */
+    private void release(int id) {
+        if (--references[id] > 0) {
+            return;
+        }
+        // No counted bigram uses the token, so it has no successors and is nobody's successor
+        tokenIds.remove(id);
+        tokens[id] = null;
+        successors[id] = NO_SUCCESSORS;
+        successorCounts[id] = 0;
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIdCount * 2);
+        }
+        freeIds[freeIdCount++] = id;
+    }
+
+    private void addSuccessor(int previous, int next) {
+        int[] list = successors[previous];
+        int size = successorCounts[previous];
+        if (size == list.length) {
+            list = successors[previous] = Arrays.copyOf(list, Math.max(4, size * 2));
+        }
+        list[size] = next;
+        successorCounts[previous] = size + 1;
+    }
+
+    private void removeSuccessor(int previous, int next) {
+        int[] list = successors[previous];
+        int size = successorCounts[previous];
+        for (int i = 0; i < size; i++) {
+            if (list[i] == next) {
+                // The order does not matter, predictions sort the successors anyway
+                list[i] = list[size - 1];
+                successorCounts[previous] = size - 1;
+                return;
+            }
+        }
+    }
+
+    /**
+     * The numbers of the known tokens in a hash table with open addressing and linear probing,
+     * looked up by token. The table holds the numbers only and compares the tokens through
+     * {@link #tokens}, so a lookup neither boxes the number nor creates an entry object.
+     */
+    private final class TokenIds {
+        private static final int FREE = -1;
+
+        private int[] table = newTable(128);
+        private int size;
+
+        private int[] newTable(int capacity) {
+            int[] table = new int[capacity];
+            Arrays.fill(table, FREE);
+            return table;
+        }
+
+        private int home(String token) {
+            int h = token.hashCode();
+            return ((h ^ (h >>> 16)) * 0x9E3779B9) & (table.length - 1);
+        }
+
+        /**
+         * Returns the slot holding the token's number, or the free slot ending its probe sequence.
+         */
+        private int slot(String token) {
+            int mask = table.length - 1;
+            int i = home(token);
+            while (table[i] != FREE && !tokens[table[i]].equals(token)) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        /**
+         * Returns the number of a token, or -1 if it is not known.
+         */
+        int get(String token) {
+            return table[slot(token)];
+        }
+
+        /**
+         * Adds a number whose token is already in {@link #tokens} and not yet in the table.
+         */
+        void add(int id) {
+            if ((size + 1) * 4 > table.length * 3) {
+                int[] old = table;
+                table = newTable(old.length * 2);
+                for (int oldId : old) {
+                    if (oldId != FREE) {
+                        table[slot(tokens[oldId])] = oldId;
+                    }
+                }
+            }
+            table[slot(tokens[id])] = id;
+            size++;
+        }
+
+        /**
+         * Removes a number while its token is still in {@link #tokens}.
+         */
+        void remove(int id) {
+            int mask = table.length - 1;
+            int gap = slot(tokens[id]);
+            // Move later entries of the probe sequence into the gap, so no lookup stops early
+            for (int i = (gap + 1) & mask; table[i] != FREE; i = (i + 1) & mask) {
+                int home = home(tokens[table[i]]);
+                if (((i - home) & mask) >= ((i - gap) & mask)) {
+                    table[gap] = table[i];
+                    gap = i;
+                }
+            }
+            table[gap] = FREE;
+            size--;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * A hash map from {@code long} keys to {@code int} values with open addressing and linear probing.
+     * Removing an entry moves the later entries of its probe sequence back instead of leaving a marker.
+     */
+    private static final class LongIntMap {
+        private static final long FREE = -1L; // no bigram key is negative
+
+        private long[] keys = newKeys(256);
+        private int[] values = new int[256];
+        private int size;
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, FREE);
+            return keys;
+        }
+
+        private int home(long key) {
+            return Long.hashCode(key * 0x9E3779B97F4A7C15L) & (keys.length - 1);
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int i = home(key);
+            while (keys[i] != FREE && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        int get(long key) {
+            int i = slot(key);
+            return keys[i] == key ? values[i] : 0;
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int gap = slot(key);
+            if (keys[gap] != key) {
+                return;
+            }
+            // Move later entries of the probe sequence into the gap, so no lookup stops early
+            for (int i = (gap + 1) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+                if (((i - home(keys[i])) & mask) >= ((i - gap) & mask)) {
+                    keys[gap] = keys[i];
+                    values[gap] = values[i];
+                    gap = i;
+                }
+            }
+            keys[gap] = FREE;
+            size--;
+        }
+
+        void put(long key, int value) {
+            int i = slot(key);
+            if (keys[i] == FREE) {
+                if ((size + 1) * 4 > keys.length * 3) {
+                    grow();
+                    i = slot(key);
+                }
+                keys[i] = key;
+                size++;
+            }
+            values[i] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    int j = slot(oldKeys[i]);
+                    keys[j] = oldKeys[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------
+    // Optional Test Method
+    // ------------------------------------------------
+
+    public static void main(String[] args) {
+        BigramModel model = new BigramModel();
+        model.train("public class Main {\n"
+                + "    private static final List<String> names = new ArrayList<>();\n"
+                + "    public static void main(String[] args) {\n"
+                + "        Map<String, Integer> counts = new HashMap<>();\n"
+                + "        List<String> copy = new ArrayList<>(names);\n"
+                + "    }\n"
+                + "}\n");
+        System.out.println("public -> " + model.predict("public", "", 5));
+        System.out.println("new -> " + model.predict("new", "", 5));
+        System.out.println("new A -> " + model.predict("new", "A", 5));
+
+        // Retyping a line takes its old bigrams away, so the half-typed words leave nothing behind
+        int before = model.getTokenCount();
+        String[] tokens = DocumentIdentifierIndex.tokenize("int c");
+        model.add(tokens, 1);
+        for (String typed : new String[]{"int co", "int cou", "int coun", "int count"}) {
+            model.add(tokens, -1);
+            tokens = DocumentIdentifierIndex.tokenize(typed);
+            model.add(tokens, 1);
+        }
+        System.out.println("int -> " + model.predict("int", "", 5) + ", tokens: " + before + " -> " + model.getTokenCount());
+
+        // Lookups on a larger history
+        StringBuilder sb = new StringBuilder();
+        java.util.Random random = new java.util.Random(5);
+        String[] words = {"public", "private", "static", "final", "void", "int", "String", "new", "return",
+                "List", "Map", "ArrayList", "HashMap", "this", "if", "for", "value", "count", "result", "name"};
+        for (int line = 0; line < 200_000; line++) {
+            for (int w = 0; w < 6; w++) {
+                sb.append(words[random.nextInt(words.length)]).append(w == 5 ? "\n" : " ");
+            }
+        }
+        long start = System.nanoTime();
+        BigramModel large = new BigramModel();
+        large.train(sb.toString());
+        long trained = System.nanoTime();
+        int rounds = 100_000;
+        for (int i = 0; i < rounds; i++) {
+            large.predict(words[i % words.length], "", AutoCompleteTrie.DEFAULT_SUGGESTION_LIMIT);
+        }
+        System.out.printf("[BigramModel] %d lines trained in %d ms, %d bigrams, %d ns per prediction%n",
+                200_000, (trained - start) / 1_000_000, large.size(), (System.nanoTime() - trained) / rounds);
+    }
+}
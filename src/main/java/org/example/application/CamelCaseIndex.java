@@ -0,0 +1,598 @@
+package org.example.application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An index for camel-hump matching of identifiers, so that typing {@code sB} finds
+ * {@code StringBuilder} and {@code cHM} finds {@code ConcurrentHashMap}.
+ * <p>
+ * A query is split into humps at upper-case letters and underscores ({@code cHM} becomes
+ * {@code c}, {@code H}, {@code M}). An identifier matches when the first query hump is a prefix of
+ * its first hump and every following query hump is a prefix of a later hump, in order. Humps of
+ * the identifier may be skipped, so {@code sB} also matches {@code StringBufferBuilder}.
+ * Comparisons ignore case.
+ * <p>
+ * To avoid scanning every identifier, each one is posted under the hump initials it can match:
+ * its first initial paired with every later initial, and its first initial with every ordered
+ * pair of later initials (word-boundary bigrams and trigrams). A query only verifies the identifiers
+ * posted under its own first two or three initials. A {@link MappedDictionary} file stores the
+ * same postings for its words, and {@link Matches} ranks the matches of both together.
+ * <p>
+ * The identifiers and the posting lists are found through open-addressing tables of primitive
+ * keys rather than hash maps, so a million identifiers do not cost a million map entries and boxed ids.
+ * <p>
+ * The index is safe for concurrent use: lookups share a read lock, additions take the write lock.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     CamelCaseIndex index = new CamelCaseIndex();
+ *     index.add("StringBuilder", 0);
+ *     index.add("ConcurrentHashMap", 0);
+ *     List&lt;String&gt; matches = index.search("cHM", 10); // [ConcurrentHashMap]
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public class CamelCaseIndex {
+
+    /**
+     * Only the first humps of an identifier are indexed, which bounds the postings per identifier.
+     */
+    private static final int MAX_INDEXED_HUMPS = 8;
+
+    /**
+     * The most keys an identifier is posted under: its first initial paired with each of the 7 later
+     * ones, and with each of their 21 ordered pairs.
+     */
+    static final int MAX_POSTING_KEYS = (MAX_INDEXED_HUMPS - 1) + (MAX_INDEXED_HUMPS - 1) * (MAX_INDEXED_HUMPS - 2) / 2;
+
+    private static final long FREE = -1L; // no posting key is negative
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] idSlots = new long[256]; // hash of the word in the high half, its id + 1 in the low half; 0 where free
+    private long[] postingKeys = newKeys(256);
+    private int[][] postingLists = new int[256][]; // for postingKeys[i]; [0] holds the number of ids that follow
+    private int postingCount;
+    private String[] words = new String[16];
+    private int[] scores = new int[16];
+    private int size;
+
+    /**
+     * Adds an identifier to the index. Adding an identifier that is already present keeps
+     * the higher of the two scores.
+     *
+     * @param word  The identifier.
+     * @param score The ranking score of the identifier.
+     */
+    public void add(String word, int score) {
+        long[] keys = new long[MAX_POSTING_KEYS];
+        int keyCount = postingKeys(word, keys);
+        if (keyCount == 0) {
+            return; // a single hump is already covered by plain prefix matching
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = idSlot(word);
+            if (idSlots[slot] != 0) {
+                int existing = (int) idSlots[slot] - 1;
+                scores[existing] = Math.max(scores[existing], score);
+                return;
+            }
+            int id = size++;
+            if (id == words.length) {
+                words = Arrays.copyOf(words, id * 2);
+                scores = Arrays.copyOf(scores, id * 2);
+            }
+            words[id] = word;
+            scores[id] = score;
+            idSlots[slot] = idEntry(word, id);
+            if (size * 4 > idSlots.length * 3) {
+                growIds();
+            }
+
+            for (int k = 0; k < keyCount; k++) {
+                post(keys[k], id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds all identifiers of a list with the same score.
+     *
+     * @param words The identifiers.
+     * @param score The ranking score of the identifiers.
+     */
+    public void addAll(List<String> words, int score) {
+        lock.writeLock().lock();
+        try {
+            // Size the tables for the whole list at once instead of doubling them along the way
+            int capacity = size + words.size();
+            if (capacity > this.words.length) {
+                this.words = Arrays.copyOf(this.words, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+            }
+            if (capacity * 4 > idSlots.length * 3) {
+                rehashIds(Integer.highestOneBit(capacity * 4 / 3) * 2);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (String word : words) {
+            add(word, score);
+        }
+    }
+
+    /**
+     * Checks whether a query is meant as a camel-hump query, i.e. it has more than one hump.
+     *
+     * @param query The text typed by the user.
+     * @return {@code true} if the query contains an upper-case letter or underscore after its first character.
+     */
+    public static boolean isCamelQuery(String query) {
+        return queryHumpStarts(query).length >= 2;
+    }
+
+    /**
+     * Returns the best identifiers matching the query by camel humps.
+     * Matches skipping fewer humps come first, then higher scores, then alphabetical order.
+     *
+     * @param query The camel-hump query, e.g. {@code cHM}.
+     * @param limit The maximum number of identifiers to return.
+     * @return Up to {@code limit} matching identifiers.
+     */
+    public List<String> search(String query, int limit) {
+        Matches matches = new Matches(query, limit);
+        collect(matches);
+        return matches.words();
+    }
+
+    /**
+     * Offers the identifiers posted under the key of a query to its matches.
+     *
+     * @param matches The matches of the query.
+     */
+    void collect(Matches matches) {
+        long key = matches.key();
+        if (key == FREE) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            int[] candidates = postingLists[postingSlot(key)];
+            if (candidates == null) {
+                return;
+            }
+            for (int i = 1; i <= candidates[0]; i++) {
+                int id = candidates[i];
+                matches.offer(words[id], scores[id]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Computes the keys an identifier is posted under.
+     *
+     * @param word The identifier.
+     * @param keys Receives the keys; must hold at least {@link #MAX_POSTING_KEYS}.
+     * @return The number of keys written, which may repeat when initials do; 0 if the identifier has a single hump.
+     */
+    static int postingKeys(String word, long[] keys) {
+        int[] humps = humpStarts(word);
+        if (humps.length < 2) {
+            return 0;
+        }
+        int count = Math.min(humps.length, MAX_INDEXED_HUMPS);
+        int keyCount = 0;
+        char first = initial(word, humps[0]);
+        for (int i = 1; i < count; i++) {
+            char second = initial(word, humps[i]);
+            keys[keyCount++] = key(first, second);
+            for (int j = i + 1; j < count; j++) {
+                keys[keyCount++] = key(first, second, initial(word, humps[j]));
+            }
+        }
+        return keyCount;
+    }
+
+    /**
+     * Returns the number of identifiers in the index.
+     *
+     * @return The number of indexed identifiers.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Matches the query humps against the humps of a word.
+     *
+     * @param word  The candidate identifier.
+     * @param parts The query split into humps.
+     * @return The number of word humps skipped between matched humps, or -1 if the word does not match.
+     */
+    private static int matchHumps(String word, String[] parts) {
+        int matched = 0;
+        int skipped = 0;
+        for (int i = 0; i < word.length() && matched < parts.length; i++) {
+            if (!isHumpStart(word, i)) {
+                continue;
+            }
+            if (word.regionMatches(true, i, parts[matched], 0, parts[matched].length())) {
+                matched++;
+            } else if (matched == 0) {
+                return -1; // the first hump is anchored
+            } else {
+                skipped++;
+            }
+        }
+        return matched == parts.length ? skipped : -1;
+    }
+
+    /**
+     * Checks whether a hump of an identifier starts at the given position: the first character,
+     * an upper-case letter after a lower-case letter or digit, the last upper-case letter of an
+     * acronym followed by a lower-case letter ({@code URLConnection} gives {@code URL} and
+     * {@code Connection}), and the first character after an underscore or dollar sign.
+     *
+     * @param word The identifier.
+     * @param i    The position to check.
+     * @return {@code true} if a hump starts at {@code i}.
+     */
+    private static boolean isHumpStart(String word, int i) {
+        char c = word.charAt(i);
+        if (isSeparator(c)) {
+            return false;
+        }
+        if (i == 0 || isSeparator(word.charAt(i - 1))) {
+            return true;
+        }
+        if (!Character.isUpperCase(c)) {
+            return false;
+        }
+        return !Character.isUpperCase(word.charAt(i - 1))
+                || (i + 1 < word.length() && Character.isLowerCase(word.charAt(i + 1)));
+    }
+
+    /**
+     * Finds the positions where the humps of an identifier start.
+     *
+     * @param word The identifier.
+     * @return The start offsets of its humps.
+     */
+    private static int[] humpStarts(String word) {
+        int[] starts = new int[4];
+        int count = 0;
+        for (int i = 0; i < word.length(); i++) {
+            if (isHumpStart(word, i)) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i;
+            }
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    /**
+     * Finds the positions where the humps of a query start. Unlike identifiers, every upper-case
+     * letter of a query starts a hump, so {@code cHM} is read as {@code c}, {@code H}, {@code M}.
+     *
+     * @param query The query.
+     * @return The start offsets of its humps.
+     */
+    private static int[] queryHumpStarts(String query) {
+        int[] starts = new int[query.length()];
+        int count = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (!isSeparator(c)
+                    && (count == 0 || Character.isUpperCase(c) || isSeparator(query.charAt(i - 1)))) {
+                starts[count++] = i;
+            }
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '_' || c == '$';
+    }
+
+    /**
+     * Splits a text into its humps.
+     */
+    private static String[] split(String text, int[] humps) {
+        String[] parts = new String[humps.length];
+        for (int i = 0; i < humps.length; i++) {
+            int end = i + 1 < humps.length ? humps[i + 1] : text.length();
+            // Drop separators such as '_' that trail a hump
+            while (end > humps[i] + 1 && isSeparator(text.charAt(end - 1))) {
+                end--;
+            }
+            parts[i] = text.substring(humps[i], end);
+        }
+        return parts;
+    }
+
+    private static char initial(String word, int offset) {
+        return Character.toLowerCase(word.charAt(offset));
+    }
+
+    private static long key(char first, char second) {
+        return ((long) first << 32) | ((long) second << 16) | 0xFFFFL;
+    }
+
+    private static long key(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private void post(long key, int id) {
+        int slot = postingSlot(key);
+        int[] list = postingLists[slot];
+        if (list == null) {
+            if ((postingCount + 1) * 4 > postingKeys.length * 3) {
+                growPostings();
+                slot = postingSlot(key);
+            }
+            list = new int[4];
+            postingKeys[slot] = key;
+            postingLists[slot] = list;
+            postingCount++;
+        }
+        int count = list[0];
+        if (count > 0 && list[count] == id) {
+            return; // the same initials can repeat within one identifier
+        }
+        if (count + 1 == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            postingLists[slot] = list;
+        }
+        list[count + 1] = id;
+        list[0] = count + 1;
+    }
+
+    private static long[] newKeys(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        return keys;
+    }
+
+    /**
+     * Returns the first slot of the probe sequence of a hash in a table of the given power-of-two size.
+     */
+    private static int home(long hash, int capacity) {
+        return Long.hashCode(hash * 0x9E3779B97F4A7C15L) & (capacity - 1);
+    }
+
+    /**
+     * Returns the slot of the word in {@link #idSlots}, or the free slot where it belongs. The hash
+     * kept in each slot is compared first, so the probe rarely has to read another word.
+     */
+    private int idSlot(String word) {
+        int hash = word.hashCode();
+        int mask = idSlots.length - 1;
+        int i = home(hash, idSlots.length);
+        while (idSlots[i] != 0
+                && ((int) (idSlots[i] >>> 32) != hash || !words[(int) idSlots[i] - 1].equals(word))) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private static long idEntry(String word, int id) {
+        return ((long) word.hashCode() << 32) | (id + 1);
+    }
+
+    /**
+     * Returns the slot of the key in {@link #postingKeys}, or the free slot where it belongs.
+     */
+    private int postingSlot(long key) {
+        int mask = postingKeys.length - 1;
+        int i = home(key, postingKeys.length);
+        while (postingKeys[i] != FREE && postingKeys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void growIds() {
+        rehashIds(idSlots.length * 2);
+    }
+
+    private void rehashIds(int capacity) {
+        idSlots = new long[capacity];
+        for (int id = 0; id < size; id++) {
+            idSlots[idSlot(words[id])] = idEntry(words[id], id);
+        }
+    }
+
+    private void growPostings() {
+        long[] oldKeys = postingKeys;
+        int[][] oldLists = postingLists;
+        postingKeys = newKeys(oldKeys.length * 2);
+        postingLists = new int[oldKeys.length * 2][];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int j = postingSlot(oldKeys[i]);
+                postingKeys[j] = oldKeys[i];
+                postingLists[j] = oldLists[i];
+            }
+        }
+    }
+
+    /**
+     * The best identifiers matching one camel-hump query, collected from the index and from a
+     * mapped dictionary. An identifier offered by both counts once, with the higher score.
+     * Only the best {@code limit} are kept: the head of the queue is the worst one kept.
+     */
+    static final class Matches {
+        private final String[] parts; // the query split into humps, null if it has a single hump
+        private final int limit;
+        private final PriorityQueue<Match> best;
+        private final Map<String, Match> kept = new HashMap<>();
+
+        /**
+         * @param query The camel-hump query, e.g. {@code cHM}.
+         * @param limit The maximum number of identifiers to keep.
+         */
+        Matches(String query, int limit) {
+            int[] humps = queryHumpStarts(query);
+            this.parts = humps.length >= 2 && limit > 0 ? split(query, humps) : null;
+            this.limit = limit;
+            this.best = new PriorityQueue<>(Math.min(limit, 64) + 1, (a, b) -> b.compareTo(a));
+        }
+
+        /**
+         * Returns the key of the identifiers that can match: the initials of the first two or three query humps.
+         *
+         * @return The posting key, or -1 if the query has a single hump and nothing can match.
+         */
+        long key() {
+            if (parts == null) {
+                return FREE;
+            }
+            char first = Character.toLowerCase(parts[0].charAt(0));
+            char second = Character.toLowerCase(parts[1].charAt(0));
+            return parts.length >= 3
+                    ? CamelCaseIndex.key(first, second, Character.toLowerCase(parts[2].charAt(0)))
+                    : CamelCaseIndex.key(first, second);
+        }
+
+        /**
+         * Keeps an identifier if it matches the query and ranks among the best so far.
+         *
+         * @param word  The candidate identifier.
+         * @param score The ranking score of the identifier.
+         */
+        void offer(String word, int score) {
+            int skipped = matchHumps(word, parts);
+            if (skipped < 0) {
+                return;
+            }
+            Match previous = kept.get(word);
+            if (previous != null) {
+                if (previous.score >= score) {
+                    return;
+                }
+                best.remove(previous);
+                kept.remove(word);
+            }
+            if (best.size() == limit && !best.peek().isWorseThan(word, score, skipped)) {
+                return;
+            }
+            Match match = new Match(word, score, skipped);
+            best.add(match);
+            kept.put(word, match);
+            if (best.size() > limit) {
+                kept.remove(best.poll().word);
+            }
+        }
+
+        /**
+         * Returns the identifiers kept, best first.
+         *
+         * @return Up to {@code limit} matching identifiers.
+         */
+        List<String> words() {
+            List<Match> sorted = new ArrayList<>(best);
+            sorted.sort(null);
+            List<String> results = new ArrayList<>(sorted.size());
+            for (Match match : sorted) {
+                results.add(match.word);
+            }
+            return results;
+        }
+    }
+
+    /**
+     * A matched identifier, ordered best first.
+     */
+    private static final class Match implements Comparable<Match> {
+        final String word;
+        final int score;
+        final int skipped;
+
+        Match(String word, int score, int skipped) {
+            this.word = word;
+            this.score = score;
+            this.skipped = skipped;
+        }
+
+        /**
+         * Checks whether this match ranks below a candidate with the given properties.
+         */
+        boolean isWorseThan(String otherWord, int otherScore, int otherSkipped) {
+            if (skipped != otherSkipped) {
+                return skipped > otherSkipped;
+            }
+            if (score != otherScore) {
+                return score < otherScore;
+            }
+            return word.compareTo(otherWord) > 0;
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            if (skipped != other.skipped) {
+                return Integer.compare(skipped, other.skipped);
+            }
+            if (score != other.score) {
+                return Integer.compare(other.score, score);
+            }
+            return word.compareTo(other.word);
+        }
+    }
+
+    // ------------------------------------------------
+    // Optional Test Method
+    // ------------------------------------------------
+
+    public static void main(String[] args) {
+        String[] humps = {"String", "Builder", "Concurrent", "Hash", "Map", "Abstract", "List", "Buffered",
+                "Reader", "Input", "Stream", "Output", "Factory", "Exception", "Linked", "Tree", "Set",
+                "Array", "Queue", "Deque", "Char", "Sequence", "Thread", "Pool", "Executor", "Service"};
+        Random random = new Random(42);
+        CamelCaseIndex index = new CamelCaseIndex();
+        index.add("StringBuilder", 10);
+        index.add("ConcurrentHashMap", 10);
+        for (int i = 0; i < 150_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int count = 2 + random.nextInt(4);
+            for (int j = 0; j < count; j++) {
+                sb.append(humps[random.nextInt(humps.length)]);
+            }
+            sb.append(i % 100);
+            index.add(sb.toString(), 0);
+        }
+
+        System.out.println("sB  -> " + index.search("sB", 5));
+        System.out.println("cHM -> " + index.search("cHM", 5));
+
+        String[] queries = {"sB", "cHM", "aLS", "bRE", "tPE"};
+        int rounds = 2000;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            index.search(queries[i % queries.length], 20);
+        }
+        long perQuery = (System.nanoTime() - start) / rounds;
+        System.out.printf("[CamelCaseIndex] %d identifiers, %d us per query on average%n",
+                index.size(), perQuery / 1000);
+    }
+}
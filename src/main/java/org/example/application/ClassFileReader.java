@@ -0,0 +1,307 @@
+package org.example.application;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A minimal reader for a compiled {@code .class} file.
+ * <p>
+ * It walks the constant pool just far enough to read the access flags and the name of the class,
+ * which is all that is needed to tell public types apart without loading them into the JVM.
+ * The superclass, the interfaces and the fields and methods are only read when they are asked for,
+ * so scanning many classes for their names stays cheap. A reader is not thread-safe.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     byte[] bytes = Files.readAllBytes(path);
+ *     ClassFileReader reader = new ClassFileReader(bytes);
+ *     if (reader.isPublic()) {
+ *         System.out.println(reader.getClassName()); // e.g. java/util/List
+ *         for (ClassFileReader.Member method : reader.getMethods()) {
+ *             System.out.println(method.getName() + method.getDescriptor()); // e.g. size()I
+ *         }
+ *     }
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    // Constant pool tags, see JVMS 4.4
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private final ByteBuffer buffer;
+    private final int[] constantOffsets; // offset of each constant's tag byte, indexed by constant number
+    private final int accessFlags;
+    private final int thisClassIndex;
+    private final int superClassOffset; // where the class header ends and the superclass index starts
+
+    // Read on first use
+    private List<Member> fields;
+    private List<Member> methods;
+
+    /**
+     * Parses the header of a class file.
+     *
+     * @param bytes The content of the class file.
+     * @throws IllegalArgumentException If the bytes are not a class file.
+     */
+    public ClassFileReader(byte[] bytes) {
+        this.buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        buffer.getShort(); // minor version
+        buffer.getShort(); // major version
+
+        int count = Short.toUnsignedInt(buffer.getShort());
+        constantOffsets = new int[count];
+        for (int i = 1; i < count; i++) {
+            constantOffsets[i] = buffer.position();
+            int tag = Byte.toUnsignedInt(buffer.get());
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    int length = Short.toUnsignedInt(buffer.getShort());
+                    buffer.position(buffer.position() + length);
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    buffer.position(buffer.position() + 2);
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    buffer.position(buffer.position() + 3);
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    buffer.position(buffer.position() + 4);
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    buffer.position(buffer.position() + 8);
+                    i++; // takes two constant pool slots
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+        accessFlags = Short.toUnsignedInt(buffer.getShort());
+        thisClassIndex = Short.toUnsignedInt(buffer.getShort());
+        superClassOffset = buffer.position();
+    }
+
+    /**
+     * A field or method declared by a class.
+     */
+    public static final class Member {
+        private final String name;
+        private final String descriptor;
+        private final int accessFlags;
+
+        Member(String name, String descriptor, int accessFlags) {
+            this.name = name;
+            this.descriptor = descriptor;
+            this.accessFlags = accessFlags;
+        }
+
+        /**
+         * @return The name, e.g. {@code println}.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return The type descriptor, e.g. {@code (Ljava/lang/String;)V} or {@code Ljava/io/PrintStream;}.
+         */
+        public String getDescriptor() {
+            return descriptor;
+        }
+
+        /**
+         * @return The access flags (see {@link java.lang.reflect.Modifier}).
+         */
+        public int getAccessFlags() {
+            return accessFlags;
+        }
+
+        /**
+         * @return {@code true} if the member is public.
+         */
+        public boolean isPublic() {
+            return (accessFlags & ACC_PUBLIC) != 0;
+        }
+
+        /**
+         * @return {@code true} if the member is static.
+         */
+        public boolean isStatic() {
+            return (accessFlags & ACC_STATIC) != 0;
+        }
+
+        /**
+         * @return {@code true} if the compiler generated the member, e.g. a bridge method or a lambda body.
+         */
+        public boolean isSynthetic() {
+            return (accessFlags & ACC_SYNTHETIC) != 0;
+        }
+
+        @Override
+        public String toString() {
+            return name + descriptor;
+        }
+    }
+
+    /**
+     * Returns the access flags of the class (see {@link java.lang.reflect.Modifier}).
+     *
+     * @return The access flags.
+     */
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    /**
+     * Checks whether the class is declared public.
+     *
+     * @return {@code true} if the class is public.
+     */
+    public boolean isPublic() {
+        return (accessFlags & ACC_PUBLIC) != 0;
+    }
+
+    /**
+     * Returns the internal name of the class, e.g. {@code java/util/Map$Entry}.
+     *
+     * @return The internal class name.
+     */
+    public String getClassName() {
+        return readClassName(thisClassIndex);
+    }
+
+    /**
+     * Returns the internal name of the superclass, e.g. {@code java/util/AbstractList}.
+     *
+     * @return The superclass name, or {@code null} for {@code java/lang/Object} and module descriptors.
+     */
+    public String getSuperClassName() {
+        int index = Short.toUnsignedInt(buffer.getShort(superClassOffset));
+        return index == 0 ? null : readClassName(index);
+    }
+
+    /**
+     * Returns the internal names of the interfaces the class implements directly.
+     *
+     * @return The interface names, in declaration order.
+     */
+    public List<String> getInterfaceNames() {
+        int count = Short.toUnsignedInt(buffer.getShort(superClassOffset + 2));
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(readClassName(Short.toUnsignedInt(buffer.getShort(superClassOffset + 4 + 2 * i))));
+        }
+        return names;
+    }
+
+    /**
+     * Returns the fields declared by the class, of any access.
+     *
+     * @return The fields, in declaration order.
+     */
+    public List<Member> getFields() {
+        readMembers();
+        return fields;
+    }
+
+    /**
+     * Returns the methods declared by the class, of any access, including constructors ({@code <init>}).
+     *
+     * @return The methods, in declaration order.
+     */
+    public List<Member> getMethods() {
+        readMembers();
+        return methods;
+    }
+
+    /**
+     * Reads the field and method tables, which follow the interfaces.
+     */
+    private void readMembers() {
+        if (methods != null) {
+            return;
+        }
+        int interfaceCount = Short.toUnsignedInt(buffer.getShort(superClassOffset + 2));
+        buffer.position(superClassOffset + 4 + 2 * interfaceCount);
+        fields = readMemberTable();
+        methods = readMemberTable();
+    }
+
+    private List<Member> readMemberTable() {
+        int count = Short.toUnsignedInt(buffer.getShort());
+        List<Member> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int flags = Short.toUnsignedInt(buffer.getShort());
+            String name = readUtf8(Short.toUnsignedInt(buffer.getShort()));
+            String descriptor = readUtf8(Short.toUnsignedInt(buffer.getShort()));
+            int attributeCount = Short.toUnsignedInt(buffer.getShort());
+            for (int a = 0; a < attributeCount; a++) {
+                buffer.getShort(); // attribute name
+                int length = buffer.getInt();
+                buffer.position(buffer.position() + length);
+            }
+            members.add(new Member(name, descriptor, flags));
+        }
+        return Collections.unmodifiableList(members);
+    }
+
+    /**
+     * Reads the name referenced by a {@code CONSTANT_Class} entry.
+     */
+    private String readClassName(int classIndex) {
+        int nameIndex = Short.toUnsignedInt(buffer.getShort(constantOffsets[classIndex] + 1));
+        return readUtf8(nameIndex);
+    }
+
+    /**
+     * Reads a {@code CONSTANT_Utf8} entry. Class files use a modified UTF-8 encoding, which only
+     * differs from standard UTF-8 for the null character and supplementary characters.
+     */
+    private String readUtf8(int index) {
+        int offset = constantOffsets[index];
+        int length = Short.toUnsignedInt(buffer.getShort(offset + 1));
+        return new String(buffer.array(), offset + 3, length, StandardCharsets.UTF_8);
+    }
+}
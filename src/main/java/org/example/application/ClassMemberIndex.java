@@ -0,0 +1,419 @@
+package org.example.application;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Completes the fields and methods of JDK types after a dot, e.g. {@code list.} or {@code System.out.}.
+ * <p>
+ * The members of a type are read from its class file in the {@code jrt:/} file system with a
+ * {@link ClassFileReader}, without loading the class into the JVM, and only when the type is first
+ * completed. The members inherited from the superclasses and interfaces are added to those declared
+ * by the type, so each type is read once however many subtypes it has. The types read most recently
+ * are kept in a bounded cache; when it is full, the type that was used least recently is evicted.
+ * <p>
+ * The expression before the dot is resolved from left to right: the first name is either a JDK type
+ * (then its static members are offered) or a variable whose declaration is looked up in the source
+ * text before the caret, and every following field or method call continues with the type of that
+ * member. Generic types are erased, so {@code list.get(0).} continues with {@code Object}; types
+ * declared in the edited file itself are not known.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     ClassMemberIndex members = new ClassMemberIndex(ClassMemberIndex.DEFAULT_CAPACITY);
+ *     members.setTypes(new JdkTypeIndexer(JdkTypeIndexer.DEFAULT_CACHE_FILE).loadTypes());
+ *     List&lt;String&gt; found = members.suggest("System.out", "pri", "", 20); // [print, printf, println]
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public class ClassMemberIndex {
+
+    /**
+     * The number of types whose members are cached when no explicit capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final int ACC_INTERFACE = 0x0200;
+
+    /**
+     * Packages searched first when a simple name exists in several packages, e.g. {@code List}.
+     */
+    private static final List<String> PREFERRED_PACKAGES = List.of(
+            "java.lang", "java.util", "java.io", "java.util.function", "java.util.stream", "java.nio.file");
+
+    private static final Pattern NEW_EXPRESSION = Pattern.compile("\\s*=\\s*new\\s+([\\w$.]+)");
+
+    /**
+     * The type, type arguments and array brackets of a declaration, up to the variable name that follows.
+     */
+    private static final Pattern DECLARED_TYPE = Pattern.compile(
+            "(?<![\\w$.])([A-Za-z_$][\\w$.]*)\\s*(?:<[^;=(){}]*>)?\\s*((?:\\[\\s*])*)\\s+$");
+
+    private final int capacity;
+    private final LinkedHashMap<String, TypeMembers> cache; // internal name -> members, in access order
+    private volatile Map<String, String> typesBySimpleName = Map.of(); // simple name -> internal name
+    private FileSystem jrt;
+
+    /**
+     * Creates an index caching the members of at most {@code capacity} types.
+     *
+     * @param capacity The maximum number of cached types.
+     */
+    public ClassMemberIndex(int capacity) {
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TypeMembers> eldest) {
+                return size() > ClassMemberIndex.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * The public members of a type, its own and inherited ones.
+     */
+    private static final class TypeMembers {
+        final boolean isInterface;
+        final List<ClassFileReader.Member> members = new ArrayList<>(); // own members first, then inherited ones
+        final Map<String, ClassFileReader.Member> fields = new HashMap<>();
+        final Map<String, ClassFileReader.Member> methods = new HashMap<>(); // first overload by name
+
+        TypeMembers(boolean isInterface) {
+            this.isInterface = isInterface;
+        }
+
+        void add(ClassFileReader.Member member) {
+            Map<String, ClassFileReader.Member> byName = member.getDescriptor().startsWith("(") ? methods : fields;
+            if (byName.putIfAbsent(member.getName(), member) == null) {
+                members.add(member);
+            }
+        }
+    }
+
+    /**
+     * Sets the JDK types whose names can start an expression, e.g. from {@link JdkTypeIndexer#loadTypes()}.
+     * A simple name found in several packages stands for the type in the most common package.
+     *
+     * @param types The JDK types.
+     */
+    public void setTypes(List<JdkTypeIndexer.JdkType> types) {
+        Map<String, String> bySimpleName = new HashMap<>();
+        Map<String, Integer> rank = new HashMap<>();
+        for (JdkTypeIndexer.JdkType type : types) {
+            int preferred = PREFERRED_PACKAGES.indexOf(type.getPackageName());
+            int typeRank = preferred >= 0 ? preferred : PREFERRED_PACKAGES.size();
+            Integer current = rank.get(type.getSimpleName());
+            if (current == null || typeRank < current) {
+                rank.put(type.getSimpleName(), typeRank);
+                bySimpleName.put(type.getSimpleName(), type.getQualifiedName().replace('.', '/'));
+            }
+        }
+        typesBySimpleName = bySimpleName;
+        jrt(); // opened by the loading thread rather than by the first completion
+    }
+
+    /**
+     * Suggests the members that can follow {@code qualifier.}, starting with the given prefix.
+     *
+     * @param qualifier The expression before the dot, e.g. {@code System.out} or {@code sb.append(x)}.
+     * @param prefix    The part of the member name typed after the dot, possibly empty.
+     * @param source    The text before the caret, searched for the declarations of variables.
+     * @param limit     The maximum number of suggestions.
+     * @return Up to {@code limit} member names, members declared by the type itself first.
+     */
+    public List<String> suggest(String qualifier, String prefix, CharSequence source, int limit) {
+        List<String> results = new ArrayList<>();
+        List<String> segments = splitQualifier(qualifier);
+        if (segments.isEmpty()) {
+            return results;
+        }
+
+        // The first name is a type (static members) or a variable (instance members)
+        String first = segments.get(0);
+        if (first.indexOf('(') >= 0) {
+            return results; // a method of the edited class
+        }
+        boolean statics = false;
+        String type = typeOfVariable(first, source);
+        if (type == null && Character.isUpperCase(first.charAt(0))) {
+            type = typesBySimpleName.get(first);
+            statics = true;
+        }
+        for (int i = 1; i < segments.size() && type != null; i++) {
+            type = typeOfMember(type, segments.get(i));
+            statics = false;
+        }
+        if (type == null) {
+            return results;
+        }
+
+        TypeMembers members = members(type);
+        if (members == null) {
+            return results;
+        }
+        for (ClassFileReader.Member member : members.members) {
+            if (results.size() == limit) {
+                break;
+            }
+            String name = member.getName();
+            if (member.isStatic() == statics && name.regionMatches(true, 0, prefix, 0, prefix.length())
+                    && !results.contains(name)) {
+                results.add(name);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Splits an expression at the dots that are not inside parentheses, e.g. {@code a.b(c.d).e}
+     * into {@code a}, {@code b(c.d)} and {@code e}.
+     */
+    private static List<String> splitQualifier(String qualifier) {
+        List<String> segments = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i <= qualifier.length(); i++) {
+            char c = i < qualifier.length() ? qualifier.charAt(i) : '.';
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '.' && depth == 0) {
+                String segment = qualifier.substring(start, i).trim();
+                if (segment.isEmpty() || !Character.isJavaIdentifierStart(segment.charAt(0))) {
+                    return Collections.emptyList();
+                }
+                segments.add(segment);
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Finds the declared JDK type of a variable in the source, using the last declaration.
+     * <p>
+     * The occurrences of the name are visited from the end with {@code lastIndexOf}, and only the
+     * statement before an occurrence that can end a declarator is matched against {@link #DECLARED_TYPE},
+     * so the source is not scanned with a pattern of its own for every query.
+     *
+     * @return The internal name of the type, or {@code null} if it is unknown or not a JDK class type.
+     */
+    private String typeOfVariable(String name, CharSequence source) {
+        String text = source.toString();
+        Matcher matcher = DECLARED_TYPE.matcher(text).useTransparentBounds(true);
+        for (int at = text.lastIndexOf(name); at > 0; at = text.lastIndexOf(name, at - 1)) {
+            int end = at + name.length();
+            if (!Character.isWhitespace(text.charAt(at - 1)) || !endsDeclarator(text, end)) {
+                continue;
+            }
+            // The type and its arguments never contain these, so the declaration starts after the last one
+            int start = at;
+            while (start > 0 && ";{}()=".indexOf(text.charAt(start - 1)) < 0) {
+                start--;
+            }
+            if (!matcher.region(start, at).find()) {
+                continue;
+            }
+            String found;
+            String typeName = matcher.group(1);
+            if (!matcher.group(2).isEmpty()) {
+                found = null; // arrays only have length
+            } else if (typeName.equals("var")) {
+                Matcher init = NEW_EXPRESSION.matcher(text).region(end, text.length());
+                found = init.lookingAt() ? init.group(1) : null;
+            } else {
+                found = typeName;
+            }
+            return found == null ? null : typesBySimpleName.get(found.substring(found.lastIndexOf('.') + 1));
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a variable name ending at {@code end} can be the end of a declarator: it is
+     * followed, after any whitespace, by one of {@code =;,):}, or by the end of a line or of the text.
+     */
+    private static boolean endsDeclarator(String text, int end) {
+        for (int i = end; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                return true;
+            }
+            if (!Character.isWhitespace(c)) {
+                return "=;,):".indexOf(c) >= 0;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the type of a field, or the return type of a method call, of the given type.
+     */
+    private String typeOfMember(String type, String segment) {
+        TypeMembers members = members(type);
+        if (members == null) {
+            return null;
+        }
+        int paren = segment.indexOf('(');
+        ClassFileReader.Member member = paren >= 0
+                ? members.methods.get(segment.substring(0, paren).trim())
+                : members.fields.get(segment);
+        if (member == null) {
+            return null;
+        }
+        String descriptor = member.getDescriptor();
+        String result = descriptor.substring(descriptor.indexOf(')') + 1);
+        return result.startsWith("L") ? result.substring(1, result.length() - 1) : null;
+    }
+
+    /**
+     * Returns the public members of a type, reading its class file and those of its supertypes if needed.
+     *
+     * @param internalName The internal name of the type, e.g. {@code java/util/ArrayList}.
+     * @return The members, or {@code null} if the class file cannot be found.
+     */
+    private TypeMembers members(String internalName) {
+        synchronized (cache) {
+            TypeMembers cached = cache.get(internalName);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Read outside the lock; two threads reading the same type at once simply do it twice
+        TypeMembers loaded = load(internalName);
+        if (loaded != null) {
+            synchronized (cache) {
+                cache.put(internalName, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private TypeMembers load(String internalName) {
+        byte[] bytes = readClassFile(internalName);
+        if (bytes == null) {
+            return null;
+        }
+        ClassFileReader reader = new ClassFileReader(bytes);
+        TypeMembers members = new TypeMembers((reader.getAccessFlags() & ACC_INTERFACE) != 0);
+        List<ClassFileReader.Member> own = new ArrayList<>(reader.getFields());
+        own.addAll(reader.getMethods());
+        own.sort(Comparator.comparing(ClassFileReader.Member::getName));
+        for (ClassFileReader.Member member : own) {
+            if (member.isPublic() && !member.isSynthetic() && !member.getName().startsWith("<")) {
+                members.add(member);
+            }
+        }
+
+        List<String> supertypes = new ArrayList<>();
+        if (reader.getSuperClassName() != null) {
+            supertypes.add(reader.getSuperClassName());
+        }
+        supertypes.addAll(reader.getInterfaceNames());
+        if (members.isInterface) {
+            supertypes.add("java/lang/Object"); // interfaces still have the methods of Object
+        }
+        List<ClassFileReader.Member> inherited = new ArrayList<>();
+        for (String supertype : supertypes) {
+            TypeMembers parent = members(supertype);
+            if (parent == null) {
+                continue;
+            }
+            for (ClassFileReader.Member member : parent.members) {
+                // Static methods of interfaces are not inherited
+                if (!(parent.isInterface && member.isStatic() && member.getDescriptor().startsWith("("))) {
+                    inherited.add(member);
+                }
+            }
+        }
+        inherited.sort(Comparator.comparing(ClassFileReader.Member::getName));
+        inherited.forEach(members::add);
+        return members;
+    }
+
+    /**
+     * Reads a class file from the {@code jrt:/} file system, looking in every module containing its package.
+     */
+    private byte[] readClassFile(String internalName) {
+        int slash = internalName.lastIndexOf('/');
+        if (slash < 0) {
+            return null;
+        }
+        Path packageDirectory = jrt().getPath("/packages", internalName.substring(0, slash).replace('/', '.'));
+        if (!Files.isDirectory(packageDirectory)) {
+            return null;
+        }
+        try (Stream<Path> modules = Files.list(packageDirectory)) {
+            for (Path module : (Iterable<Path>) modules::iterator) {
+                Path file = module.resolve(internalName + ".class");
+                if (Files.exists(file)) {
+                    return Files.readAllBytes(file);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private synchronized FileSystem jrt() {
+        if (jrt == null) {
+            jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        }
+        return jrt;
+    }
+
+    /**
+     * Returns the number of types whose members are cached.
+     *
+     * @return The number of cached types.
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    // ------------------------------------------------
+    // Optional Test Method
+    // ------------------------------------------------
+
+    public static void main(String[] args) {
+        ClassMemberIndex index = new ClassMemberIndex(DEFAULT_CAPACITY);
+        index.setTypes(new JdkTypeIndexer(JdkTypeIndexer.DEFAULT_CACHE_FILE).loadTypes());
+        String source = "List<String> list = new ArrayList<>();\nStringBuilder sb = new StringBuilder();\n"
+                + "var map = new HashMap<String, Integer>();\n";
+        String[][] queries = {{"System.out", "pr"}, {"list", ""}, {"sb.append(1)", "ins"}, {"map", "comp"},
+                {"Math", "ma"}, {"\"text\"", ""}, {"String", "val"}};
+        for (String[] query : queries) {
+            long start = System.nanoTime();
+            List<String> found = index.suggest(query[0], query[1], source, 8);
+            long first = System.nanoTime() - start;
+            int rounds = 1_000;
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                index.suggest(query[0], query[1], source, 8);
+            }
+            System.out.printf("%s.%s -> %s (first %d us, cached %d us)%n", query[0], query[1], found,
+                    first / 1000, (System.nanoTime() - start) / rounds / 1000);
+        }
+        System.out.println("[ClassMemberIndex] " + index.size() + " types cached");
+    }
+}
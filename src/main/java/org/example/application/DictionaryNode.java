@@ -0,0 +1,71 @@
+package org.example.application;
+
+/**
+ * Read access to a node of a completion dictionary, independent of where the node is stored.
+ * <p>
+ * Both the in-memory nodes of {@link AutoCompleteTrie} and the nodes of a memory-mapped
+ * {@link MappedDictionary} implement this interface, so {@link DictionarySearch} can run the same
+ * prefix and typo-tolerant searches over either of them.
+ * <p>
+ * Children are exposed in ascending order of their characters, through a {@link ChildCursor} that
+ * walks them one after another, so visiting every child of a node costs the same for each child.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+interface DictionaryNode {
+
+    /**
+     * @return {@code true} if a word ends at this node.
+     */
+    boolean isWord();
+
+    /**
+     * @return The ranking score of the word ending here (only meaningful if {@link #isWord()}).
+     */
+    int getScore();
+
+    /**
+     * @return The highest score of any word in this subtree, or {@link Integer#MIN_VALUE} if it has no words.
+     */
+    int getBestScore();
+
+    /**
+     * @return The number of children.
+     */
+    int getChildCount();
+
+    /**
+     * @return A cursor positioned before the first child, in ascending character order.
+     */
+    ChildCursor childCursor();
+
+    /**
+     * @param c The character.
+     * @return The child for the given character, or {@code null} if there is none.
+     */
+    DictionaryNode getChild(char c);
+
+    /**
+     * A position among the children of a node, moved forward one child at a time.
+     */
+    interface ChildCursor {
+
+        /**
+         * Moves to the next child.
+         *
+         * @return {@code false} if there are no more children.
+         */
+        boolean next();
+
+        /**
+         * @return The character leading to the current child.
+         */
+        char key();
+
+        /**
+         * @return The current child.
+         */
+        DictionaryNode node();
+    }
+}
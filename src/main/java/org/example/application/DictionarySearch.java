@@ -0,0 +1,452 @@
+package org.example.application;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * The search algorithms of the autocompletion dictionaries.
+ * <p>
+ * The searches only read nodes through {@link DictionaryNode}, so they work the same way on the
+ * in-memory Trie of {@link AutoCompleteTrie} and on a memory-mapped {@link MappedDictionary}.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+final class DictionarySearch {
+
+    /**
+     * A deadline that never passes, for searches without a time budget.
+     */
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private DictionarySearch() {
+    }
+
+    /**
+     * Checks whether a deadline has passed.
+     *
+     * @param deadline A {@link System#nanoTime()} value, or {@link #NO_DEADLINE}.
+     * @return {@code true} if the deadline has passed.
+     */
+    static boolean isExpired(long deadline) {
+        return deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * Checks whether a character may be stored in a dictionary.
+     *
+     * @param c The character to check.
+     * @return {@code true} if the character can be part of a Java identifier.
+     */
+    static boolean isIdentifierChar(char c) {
+        if (c < 128) { // the common case, without the Unicode tables
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '$';
+        }
+        return Character.isJavaIdentifierPart(c) && !Character.isIdentifierIgnorable(c);
+    }
+
+    /**
+     * Follows one more prefix character from every given node, in both its lower and upper case.
+     *
+     * @param nodes     The nodes reached by the prefix so far.
+     * @param texts     The text leading to each of those nodes.
+     * @param c         The next character of the prefix.
+     * @param nextNodes The list receiving the nodes reached with the character.
+     * @param nextTexts The list receiving the text leading to each of them.
+     */
+    static void descend(List<DictionaryNode> nodes, List<String> texts, char c,
+                        List<DictionaryNode> nextNodes, List<String> nextTexts) {
+        if (!isIdentifierChar(c)) {
+            return;
+        }
+        char lower = Character.toLowerCase(c);
+        char upper = Character.toUpperCase(c);
+        for (int i = 0; i < nodes.size(); i++) {
+            DictionaryNode node = nodes.get(i);
+            DictionaryNode child = node.getChild(lower);
+            if (child != null) {
+                nextNodes.add(child);
+                nextTexts.add(texts.get(i) + lower);
+            }
+            child = upper != lower ? node.getChild(upper) : null;
+            if (child != null) {
+                nextNodes.add(child);
+                nextTexts.add(texts.get(i) + upper);
+            }
+        }
+    }
+
+    /**
+     * Returns the words starting with the given prefix, ignoring case, best ranked first.
+     * The words are produced lazily: nothing is searched before the first call to the iterator.
+     *
+     * @param root   The root of the dictionary.
+     * @param prefix The prefix to search for.
+     * @return An iterator over the matching words.
+     */
+    static TopWords iteratePrefix(DictionaryNode root, String prefix) {
+        List<DictionaryNode> nodes = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        nodes.add(root);
+        texts.add("");
+        for (char c : prefix.toCharArray()) {
+            List<DictionaryNode> nextNodes = new ArrayList<>();
+            List<String> nextTexts = new ArrayList<>();
+            descend(nodes, texts, c, nextNodes, nextTexts);
+            nodes = nextNodes;
+            texts = nextTexts;
+        }
+        return new TopWords(nodes, texts);
+    }
+
+    /**
+     * Collects the {@code limit} best words below the given nodes.
+     *
+     * @param starts   The starting nodes.
+     * @param prefixes The text leading to each starting node.
+     * @param limit    The maximum number of words to collect.
+     * @param results  The list where collected words are added.
+     */
+    static void collectTopWords(List<DictionaryNode> starts, List<String> prefixes, int limit, List<RankedWord> results) {
+        collectTopWords(starts, prefixes, limit, results, NO_DEADLINE);
+    }
+
+    /**
+     * Collects the {@code limit} best words below the given nodes, or as many as can be found before
+     * the deadline. Words come out in ranking order, so the words found when the deadline passes are
+     * the best ones; only lower-ranked words are missing.
+     *
+     * @param starts   The starting nodes.
+     * @param prefixes The text leading to each starting node.
+     * @param limit    The maximum number of words to collect.
+     * @param results  The list where collected words are added.
+     * @param deadline The {@link System#nanoTime()} after which the search stops, or {@link #NO_DEADLINE}.
+     * @return {@code true} if the search finished, {@code false} if it was stopped by the deadline.
+     */
+    static boolean collectTopWords(List<DictionaryNode> starts, List<String> prefixes, int limit,
+                                   List<RankedWord> results, long deadline) {
+        if (limit <= 0) {
+            return true;
+        }
+        TopWords words = new TopWords(starts, prefixes);
+        for (int i = 0; i < limit && words.hasNext(); i++) {
+            if (isExpired(deadline)) {
+                return false;
+            }
+            results.add(words.next());
+        }
+        return true;
+    }
+
+    /**
+     * Produces the words below a set of nodes in ranking order with a best-first search.
+     * <p>
+     * A node is queued with the best score of its subtree, which is never lower than the score
+     * of any word below it, so words come out of the queue in ranking order. The search runs
+     * without recursion and only as far as needed for the words actually asked for: subtrees
+     * that rank below the last word taken are never expanded.
+     */
+    static final class TopWords implements Iterator<RankedWord> {
+        private final PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        private RankedWord next;
+
+        /**
+         * @param starts   The starting nodes.
+         * @param prefixes The text leading to each starting node.
+         */
+        TopWords(List<DictionaryNode> starts, List<String> prefixes) {
+            for (int i = 0; i < starts.size(); i++) {
+                DictionaryNode start = starts.get(i);
+                if (start.getBestScore() != Integer.MIN_VALUE) {
+                    queue.add(Candidate.start(start, prefixes.get(i)));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public RankedWord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            RankedWord word = next;
+            next = null;
+            return word;
+        }
+
+        /**
+         * Returns the next word without consuming it.
+         *
+         * @return The next word, or {@code null} if there are no more.
+         */
+        RankedWord peek() {
+            return hasNext() ? next : null;
+        }
+
+        private RankedWord advance() {
+            while (!queue.isEmpty()) {
+                Candidate candidate = queue.poll();
+                if (candidate.word) {
+                    return new RankedWord(candidate.text(), candidate.score);
+                }
+                DictionaryNode node = candidate.node;
+                if (node.isWord()) {
+                    queue.add(candidate.asWord(node.getScore()));
+                }
+                for (DictionaryNode.ChildCursor children = node.childCursor(); children.next(); ) {
+                    queue.add(candidate.child(children.node(), children.key()));
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Searches for the best words whose beginning is within {@code maxEdits} edits of the query.
+     * <p>
+     * The state of the Levenshtein automaton for the query is the current row of the edit
+     * distance table, so walking an edge means computing the next row from the previous one.
+     * A branch is abandoned as soon as every entry of its row exceeds the edit budget. Every
+     * node whose row accepts the whole query becomes a seed, and the best words are then
+     * collected below the seeds that needed the fewest edits.
+     * <p>
+     * The budget is raised one edit at a time and only while nothing has been found, because
+     * the automaton for a larger budget visits far more of the dictionary and a word explained by
+     * fewer typos is almost always the one the user meant.
+     *
+     * @param root     The root of the dictionary.
+     * @param query    The query.
+     * @param maxEdits The maximum number of edits.
+     * @param limit    The maximum number of words to return.
+     * @return Up to {@code limit} words, fewest edits first.
+     */
+    static List<String> searchFuzzy(DictionaryNode root, String query, int maxEdits, int limit) {
+        List<String> results = new ArrayList<>();
+        int n = query.length();
+        char[] q = query.toLowerCase().toCharArray();
+        if (q.length != n || limit <= 0) {
+            return results;
+        }
+        for (int edits = 1; edits <= maxEdits && results.isEmpty(); edits++) {
+            // Paths longer than n + edits can never be within the budget
+            int[][] rows = new int[n + edits + 2][n + 1];
+            for (int j = 0; j <= n; j++) {
+                rows[0][j] = j;
+            }
+            char[] path = new char[n + edits + 1];
+            List<FuzzySeed> seeds = new ArrayList<>();
+            fuzzyWalk(root, new StringBuilder(), q, 0, rows, path, edits, edits + 1, seeds);
+
+            seeds.sort(null);
+            for (FuzzySeed seed : seeds) {
+                if (results.size() == limit) {
+                    break;
+                }
+                List<RankedWord> words = new ArrayList<>();
+                collectTopWords(List.of(seed.node), List.of(seed.text), limit - results.size(), words);
+                for (RankedWord word : words) {
+                    if (results.size() < limit && !results.contains(word.getWord())) {
+                        results.add(word.getWord());
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Walks the children of a node, advancing the automaton by one character per edge.
+     *
+     * @param node       The node whose children are visited.
+     * @param text       The text leading to the node.
+     * @param q          The lowercase query.
+     * @param depth      The length of the text leading to the node.
+     * @param rows       The automaton states per depth; {@code rows[depth]} belongs to the node.
+     * @param path       The lowercase characters leading to the node.
+     * @param maxEdits   The maximum number of edits.
+     * @param bestOnPath The fewest edits of a seed above this node (maxEdits + 1 if none).
+     * @param seeds      The list receiving the accepting nodes.
+     */
+    private static void fuzzyWalk(DictionaryNode node, StringBuilder text, char[] q, int depth, int[][] rows, char[] path,
+                                  int maxEdits, int bestOnPath, List<FuzzySeed> seeds) {
+        if (depth + 1 >= rows.length) {
+            return;
+        }
+        int n = q.length;
+        int[] previous = rows[depth];
+        int[] current = rows[depth + 1];
+        for (DictionaryNode.ChildCursor children = node.childCursor(); children.next(); ) {
+            char c = children.key();
+            char lower = Character.toLowerCase(c);
+            path[depth] = lower;
+
+            current[0] = depth + 1;
+            int min = current[0];
+            for (int j = 1; j <= n; j++) {
+                int cost = q[j - 1] == lower ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (depth > 0 && j > 1 && lower == q[j - 2] && path[depth - 1] == q[j - 1]) {
+                    value = Math.min(value, rows[depth - 1][j - 2] + 1); // adjacent transposition
+                }
+                current[j] = value;
+                min = Math.min(min, value);
+            }
+            if (min > maxEdits) {
+                continue;
+            }
+
+            DictionaryNode child = children.node();
+            text.append(c);
+            int best = bestOnPath;
+            if (current[n] < bestOnPath) {
+                // Exact matches (0 edits) are seeds too, so their subtrees are not reported as typos
+                seeds.add(new FuzzySeed(child, text.toString(), current[n]));
+                best = current[n];
+            }
+            if (min < best) {
+                fuzzyWalk(child, text, q, depth + 1, rows, path, maxEdits, best, seeds);
+            }
+            text.setLength(text.length() - 1);
+        }
+    }
+
+    /**
+     * A node reached by the fuzzy search, with the number of edits needed to reach it.
+     * Seeds needing fewer edits come first, then the ones with the better subtree.
+     */
+    private static final class FuzzySeed implements Comparable<FuzzySeed> {
+        final DictionaryNode node;
+        final String text;
+        final int edits;
+
+        FuzzySeed(DictionaryNode node, String text, int edits) {
+            this.node = node;
+            this.text = text;
+            this.edits = edits;
+        }
+
+        @Override
+        public int compareTo(FuzzySeed other) {
+            if (edits != other.edits) {
+                return Integer.compare(edits, other.edits);
+            }
+            if (node.getBestScore() != other.node.getBestScore()) {
+                return Integer.compare(other.node.getBestScore(), node.getBestScore());
+            }
+            return text.compareTo(other.text);
+        }
+    }
+
+    /**
+     * An entry of the best-first search: either a subtree still to be expanded or a finished word.
+     * Entries are ordered by score (highest first), then alphabetically, with a word placed
+     * before the subtree it ends in.
+     * <p>
+     * The text leading to an entry is not kept as a string. An entry links to the entry it was
+     * expanded from and keeps the one character in between, so queuing a child allocates nothing
+     * but the entry, and the text is spelled out only for the words that are returned.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        private static final Candidate NO_TEXT = new Candidate(null, null, '\0', 0, Integer.MIN_VALUE, false);
+
+        final DictionaryNode node; // null for the characters of a starting text
+        final Candidate parent;    // the entry for the text without the last character
+        final char key;            // the last character of the text
+        final int length;          // the length of the text
+        final int score;
+        final boolean word;
+
+        private Candidate(DictionaryNode node, Candidate parent, char key, int length, int score, boolean word) {
+            this.node = node;
+            this.parent = parent;
+            this.key = key;
+            this.length = length;
+            this.score = score;
+            this.word = word;
+        }
+
+        /**
+         * Creates the entry for a starting node reached by the given text.
+         */
+        static Candidate start(DictionaryNode node, String text) {
+            Candidate parent = NO_TEXT;
+            for (int i = 0; i + 1 < text.length(); i++) {
+                parent = new Candidate(null, parent, text.charAt(i), i + 1, Integer.MIN_VALUE, false);
+            }
+            char key = text.isEmpty() ? '\0' : text.charAt(text.length() - 1);
+            return new Candidate(node, parent, key, text.length(), node.getBestScore(), false);
+        }
+
+        /**
+         * Creates the entry for a child of this entry's node.
+         */
+        Candidate child(DictionaryNode child, char c) {
+            return new Candidate(child, this, c, length + 1, child.getBestScore(), false);
+        }
+
+        /**
+         * Creates the entry for the word ending at this entry's node.
+         */
+        Candidate asWord(int wordScore) {
+            return new Candidate(node, parent, key, length, wordScore, true);
+        }
+
+        /**
+         * Spells out the text leading to this entry.
+         */
+        String text() {
+            char[] chars = new char[length];
+            Candidate entry = this;
+            for (int i = length - 1; i >= 0; i--) {
+                chars[i] = entry.key;
+                entry = entry.parent;
+            }
+            return new String(chars);
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (score != other.score) {
+                return Integer.compare(other.score, score);
+            }
+            int byText = compareText(this, other);
+            if (byText != 0) {
+                return byText;
+            }
+            return Boolean.compare(other.word, word);
+        }
+
+        /**
+         * Compares the texts of two entries like {@link String#compareTo(String)}, following the links
+         * back only until the two texts share their entries.
+         */
+        private static int compareText(Candidate a, Candidate b) {
+            int result = Integer.compare(a.length, b.length); // if one text starts with the other
+            while (a.length > b.length) {
+                a = a.parent;
+            }
+            while (b.length > a.length) {
+                b = b.parent;
+            }
+            // Walking back from the end, the last difference found is the first one in the texts
+            while (a != b && a.length > 0) {
+                if (a.key != b.key) {
+                    result = Character.compare(a.key, b.key);
+                }
+                a = a.parent;
+                b = b.parent;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package org.example.application;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultStyledDocument;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A live index of the identifiers used in a document, for completing names declared in the file being edited.
+ * <p>
+ * The index listens to the document and keeps, for every line, the identifiers found on it. When the
+ * document changes, only the lines touched by the edit are tokenized again: the line structure change
+ * reported by the {@link DocumentEvent} says which lines were removed and which were added, and an edit
+ * that does not split or join lines only touches the line it happened on. The whole document is
+ * scanned only once, when the index is attached to it.
+ * <p>
+ * Every identifier has a reference count (the number of times it occurs in the document), so a name
+ * disappears from the suggestions once its last occurrence is deleted. Suggestions are ranked by that
+ * count, so the names used most often in the file come first.
+ * <p>
+ * The counts are kept in a {@link SharedIdentifierIndex}. Indexes of several documents can share one,
+ * usually {@link SharedIdentifierIndex#global()}, and then suggest the names used in any of those
+ * documents while each identifier is stored only once; the lines keep the instance held by the
+ * shared index. An index created without one gets an index of its own.
+ * <p>
+ * The tokenizer works one line at a time, so it skips string literals, character literals and
+ * line comments, but identifiers inside block comments are indexed like code.
+ * <p>
+ * An index created with a {@link BigramModel} also keeps the model's counts of consecutive tokens
+ * in step with the document: a line tokenized again takes its old bigrams away and adds the new ones.
+ * <p>
+ * Document events arrive on the Event Dispatch Thread, while suggestions may be requested from any
+ * thread; the shared index takes care of the locking.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     DocumentIdentifierIndex index = new DocumentIdentifierIndex();
+ *     index.attach(textPane.getDocument());
+ *     List&lt;String&gt; names = index.search("cou", 10); // e.g. [count, counter]
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public class DocumentIdentifierIndex implements DocumentListener {
+
+    private static final String[] NO_IDENTIFIERS = new String[0];
+
+    private final List<String[]> lineIdentifiers = new ArrayList<>(); // identifiers per line, by line index
+    private final SharedIdentifierIndex identifiers;
+    private final BigramModel bigrams; // may be null
+    private Document document;
+
+    /**
+     * Creates an index of the identifiers of one document, with an identifier index of its own.
+     */
+    public DocumentIdentifierIndex() {
+        this(new SharedIdentifierIndex(), null);
+    }
+
+    /**
+     * Creates an index that adds the identifiers of the document to a shared index and, optionally,
+     * counts the bigrams of the document's lines in the given model.
+     *
+     * @param identifiers The identifier index, usually {@link SharedIdentifierIndex#global()}.
+     * @param bigrams     The model to update, or {@code null}.
+     */
+    public DocumentIdentifierIndex(SharedIdentifierIndex identifiers, BigramModel bigrams) {
+        this.identifiers = identifiers;
+        this.bigrams = bigrams;
+    }
+
+    /**
+     * Starts indexing the given document, detaching from the previous one if needed.
+     * The document is scanned once here; afterwards only edited lines are scanned.
+     *
+     * @param document The document to index.
+     */
+    public void attach(Document document) {
+        detach();
+        this.document = document;
+        document.addDocumentListener(this);
+        reindexAll();
+    }
+
+    /**
+     * Stops listening to the current document and clears the index.
+     */
+    public void detach() {
+        if (document != null) {
+            document.removeDocumentListener(this);
+            document = null;
+        }
+        synchronized (lineIdentifiers) {
+            clear();
+        }
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        update(e);
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        update(e);
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+        // Only attributes changed (e.g. syntax highlighting), the text is the same
+    }
+
+    /**
+     * Re-tokenizes the lines affected by an edit and updates the reference counts.
+     * <p>
+     * The line structure change lists the lines the edit removed and added. The line where the
+     * edit starts (and, for an insertion, the line where it ends) may have changed without being
+     * replaced, for example when a styled document appends new lines after an existing one, so
+     * those are tokenized again as well.
+     *
+     * @param e The document event.
+     */
+    private void update(DocumentEvent e) {
+        Element root = document.getDefaultRootElement();
+        DocumentEvent.ElementChange change = e.getChange(root);
+        int first = 0;
+        int removed = 0;
+        int added = 0;
+        if (change != null) {
+            first = change.getIndex();
+            removed = change.getChildrenRemoved().length;
+            added = change.getChildrenAdded().length;
+        }
+
+        synchronized (lineIdentifiers) {
+            if (first + removed > lineIdentifiers.size()) {
+                rebuild(root);
+                return;
+            }
+            List<String[]> replaced = lineIdentifiers.subList(first, first + removed);
+            for (String[] identifiers : replaced) {
+                release(identifiers);
+            }
+            replaced.clear();
+            for (int i = 0; i < added; i++) {
+                String[] identifiers = tokenizeLine(root.getElement(first + i));
+                lineIdentifiers.add(first + i, identifiers);
+                retain(identifiers);
+            }
+            if (lineIdentifiers.size() != root.getElementCount()) {
+                rebuild(root); // out of step with the document, which should never happen
+                return;
+            }
+
+            int startLine = root.getElementIndex(e.getOffset());
+            int endLine = e.getType() == DocumentEvent.EventType.INSERT
+                    ? root.getElementIndex(e.getOffset() + e.getLength()) : startLine;
+            for (int line = startLine; line <= endLine; line++) {
+                if (line < first || line >= first + added) {
+                    refreshLine(root, line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tokenizes one line again and replaces its identifiers. The line list must be locked.
+     */
+    private void refreshLine(Element root, int line) {
+        String[] identifiers = tokenizeLine(root.getElement(line));
+        release(lineIdentifiers.set(line, identifiers));
+        retain(identifiers);
+    }
+
+    /**
+     * Tokenizes every line of the document.
+     */
+    private void reindexAll() {
+        synchronized (lineIdentifiers) {
+            rebuild(document.getDefaultRootElement());
+        }
+    }
+
+    /**
+     * Rebuilds the whole index from the given line structure. The line list must be locked.
+     */
+    private void rebuild(Element root) {
+        clear();
+        for (int i = 0; i < root.getElementCount(); i++) {
+            String[] identifiers = tokenizeLine(root.getElement(i));
+            lineIdentifiers.add(identifiers);
+            retain(identifiers);
+        }
+    }
+
+    /**
+     * Removes every line, taking its identifiers out of the shared index. The line list must be locked.
+     */
+    private void clear() {
+        for (String[] line : lineIdentifiers) {
+            release(line);
+        }
+        lineIdentifiers.clear();
+    }
+
+    /**
+     * Counts the identifiers of a line, replacing each one with the instance held by the shared index.
+     */
+    private void retain(String[] line) {
+        for (int i = 0; i < line.length; i++) {
+            line[i] = identifiers.retain(line[i]);
+        }
+        if (bigrams != null) {
+            bigrams.add(line, 1);
+        }
+    }
+
+    private void release(String[] line) {
+        if (bigrams != null) {
+            bigrams.add(line, -1);
+        }
+        for (String identifier : line) {
+            identifiers.release(identifier);
+        }
+    }
+
+    /**
+     * Returns the identifiers found on one line, in order of appearance.
+     */
+    private String[] tokenizeLine(Element line) {
+        int start = line.getStartOffset();
+        int end = Math.min(line.getEndOffset(), document.getLength());
+        try {
+            return tokenize(document.getText(start, end - start));
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+            return NO_IDENTIFIERS;
+        }
+    }
+
+    /**
+     * Finds the identifiers in a piece of text, skipping number, string and character literals and line comments.
+     *
+     * @param text The text, normally one line.
+     * @return The identifiers in order of appearance.
+     */
+    static String[] tokenize(String text) {
+        List<String> identifiers = null;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isJavaIdentifierStart(c)) {
+                int start = i++;
+                while (i < length && Character.isJavaIdentifierPart(text.charAt(i))) {
+                    i++;
+                }
+                if (identifiers == null) {
+                    identifiers = new ArrayList<>();
+                }
+                identifiers.add(text.substring(start, i));
+            } else if (Character.isDigit(c)) {
+                // Numbers like 0x1F or 10L are not identifiers
+                while (i < length && Character.isJavaIdentifierPart(text.charAt(i))) {
+                    i++;
+                }
+            } else if (c == '"' || c == '\'') {
+                i++;
+                while (i < length && text.charAt(i) != c) {
+                    i += text.charAt(i) == '\\' ? 2 : 1;
+                }
+                i++;
+            } else if (c == '/' && i + 1 < length && text.charAt(i + 1) == '/') {
+                break;
+            } else {
+                i++;
+            }
+        }
+        return identifiers == null ? NO_IDENTIFIERS : identifiers.toArray(NO_IDENTIFIERS);
+    }
+
+    /**
+     * Returns the identifiers that start with the given prefix, ignoring case, from this document and
+     * every other document sharing the identifier index.
+     * The most frequently used identifiers come first, then alphabetical order.
+     * The prefix itself is left out when its only occurrence is the word being typed.
+     *
+     * @param prefix The prefix to search for.
+     * @param limit  The maximum number of identifiers to return.
+     * @return Up to {@code limit} identifiers.
+     */
+    public List<String> search(String prefix, int limit) {
+        return identifiers.search(prefix, limit);
+    }
+
+    /**
+     * Returns how many times an identifier occurs in the documents sharing the identifier index.
+     *
+     * @param identifier The identifier.
+     * @return The reference count, 0 if it does not occur.
+     */
+    public int getReferenceCount(String identifier) {
+        return identifiers.getReferenceCount(identifier);
+    }
+
+    /**
+     * Returns the number of distinct identifiers in the documents sharing the identifier index.
+     *
+     * @return The number of distinct identifiers.
+     */
+    public int size() {
+        return identifiers.size();
+    }
+
+    // ------------------------------------------------
+    // Optional Test Method
+    // ------------------------------------------------
+
+    public static void main(String[] args) throws BadLocationException {
+        Document doc = new DefaultStyledDocument();
+        DocumentIdentifierIndex index = new DocumentIdentifierIndex();
+        index.attach(doc);
+
+        doc.insertString(0, "int counter = 0;\nString name = \"count\"; // countdown\n", null);
+        System.out.println("After insert: " + index.search("co", 10) + ", counter x" + index.getReferenceCount("counter"));
+
+        doc.insertString(doc.getLength(), "counter++;\ncountAll(counter);\n", null);
+        System.out.println("After typing: " + index.search("co", 10) + ", counter x" + index.getReferenceCount("counter"));
+
+        doc.remove(0, doc.getText(0, doc.getLength()).indexOf('\n') + 1);
+        System.out.println("After deleting line 1: " + index.search("co", 10) + ", counter x" + index.getReferenceCount("counter"));
+
+        // Typing into a large document only re-tokenizes the current line
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            big.append("    int value").append(i).append(" = compute(value").append(i - 1).append(");\n");
+        }
+        doc.insertString(doc.getLength(), big.toString(), null);
+        int keystrokes = 1000;
+        long start = System.nanoTime();
+        for (int i = 0; i < keystrokes; i++) {
+            doc.insertString(doc.getLength() / 2, "x", null);
+        }
+        long perKeystroke = (System.nanoTime() - start) / keystrokes;
+        System.out.printf("[DocumentIdentifierIndex] %d identifiers, %d lines: %d us per keystroke%n",
+                index.size(), doc.getDefaultRootElement().getElementCount(), perKeystroke / 1000);
+
+        // Two documents sharing one index suggest each other's names and hold the same instances
+        SharedIdentifierIndex shared = new SharedIdentifierIndex();
+        Document first = new DefaultStyledDocument();
+        Document second = new DefaultStyledDocument();
+        new DocumentIdentifierIndex(shared, null).attach(first);
+        new DocumentIdentifierIndex(shared, null).attach(second);
+        first.insertString(0, "int counter = 0;\n", null);
+        second.insertString(0, "counter += countAll();\n", null);
+        System.out.println("Shared: " + shared.search("co", 10) + ", counter x" + shared.getReferenceCount("counter"));
+    }
+}
@@ -0,0 +1,482 @@
+package org.example.application;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single-pass lexer for Java source, used for syntax highlighting.
+ * <p>
+ * The lexer splits a range of text into tokens: identifiers, keywords, comments, string, character
+ * and text block literals, numbers, annotations and operators; whitespace is skipped. Every
+ * character is looked at once. The first character of a token selects its kind through a table of
+ * character classes, and keywords are found by hashing the identifier while it is scanned and
+ * comparing it against an open-addressing table, so lexing creates no objects at all: the current
+ * token is read through {@link #getTokenType()}, {@link #getTokenStart()} and {@link #getTokenEnd()}.
+ * <p>
+ * Block comments and text blocks may span lines. Lexing a range ends in a state ({@link #getState()})
+ * which, passed to {@link #reset(CharSequence, int, int, int)} for the next range, lets the lexer
+ * continue inside the comment or text block, so a document can be lexed line by line.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     JavaLexer lexer = new JavaLexer();
+ *     lexer.reset(line, 0, line.length(), JavaLexer.STATE_CODE);
+ *     while (lexer.next()) {
+ *         if (lexer.getTokenType() == JavaLexer.KEYWORD) {
+ *             System.out.println(lexer.getKeyword()); // e.g. "return"
+ *         }
+ *     }
+ *     int nextLineState = lexer.getState();
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public final class JavaLexer {
+
+    // Token types
+    public static final int IDENTIFIER = 0;
+    public static final int KEYWORD = 1;
+    public static final int COMMENT = 2;
+    public static final int STRING = 3;     // string and text block literals
+    public static final int CHARACTER = 4;
+    public static final int NUMBER = 5;
+    public static final int ANNOTATION = 6;
+    public static final int OPERATOR = 7;   // one character of punctuation or an operator
+
+    // States at the end of a range
+    public static final int STATE_CODE = 0;
+    public static final int STATE_BLOCK_COMMENT = 1;
+    public static final int STATE_TEXT_BLOCK = 2;
+
+    /**
+     * The reserved keywords and literals of Java, plus {@code var}, {@code record} and {@code yield}.
+     */
+    public static final String[] KEYWORDS = {
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+            "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+            "volatile", "while", "true", "false", "null", "var", "record", "yield"
+    };
+
+    // Character classes of ASCII characters
+    private static final byte OTHER = 0;
+    private static final byte SPACE = 1;
+    private static final byte LETTER = 2;   // may start an identifier
+    private static final byte DIGIT = 3;
+    private static final byte QUOTE = 4;
+    private static final byte APOSTROPHE = 5;
+    private static final byte SLASH = 6;
+    private static final byte AT = 7;
+    private static final byte DOT = 8;
+
+    private static final byte[] CLASSES = new byte[128];
+
+    private static final int KEYWORD_TABLE_SIZE = 256; // a power of two, at least four times the keywords
+    private static final char[][] KEYWORD_TABLE = new char[KEYWORD_TABLE_SIZE][];
+    private static final int[] KEYWORD_INDEX = new int[KEYWORD_TABLE_SIZE];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+                CLASSES[c] = SPACE;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                CLASSES[c] = LETTER;
+            } else if (c >= '0' && c <= '9') {
+                CLASSES[c] = DIGIT;
+            }
+        }
+        CLASSES['"'] = QUOTE;
+        CLASSES['\''] = APOSTROPHE;
+        CLASSES['/'] = SLASH;
+        CLASSES['@'] = AT;
+        CLASSES['.'] = DOT;
+
+        for (int k = 0; k < KEYWORDS.length; k++) {
+            int slot = slot(KEYWORDS[k].hashCode());
+            while (KEYWORD_TABLE[slot] != null) {
+                slot = (slot + 1) & (KEYWORD_TABLE_SIZE - 1);
+            }
+            KEYWORD_TABLE[slot] = KEYWORDS[k].toCharArray();
+            KEYWORD_INDEX[slot] = k;
+        }
+    }
+
+    private CharSequence text;
+    private int position;
+    private int end;
+    private int state;
+
+    private int tokenType;
+    private int tokenStart;
+    private int tokenEnd;
+    private int keyword;
+
+    /**
+     * Starts lexing a range of text.
+     *
+     * @param text  The text.
+     * @param start The offset of the first character to lex.
+     * @param end   The offset after the last character to lex.
+     * @param state The state at the end of the previous range, {@link #STATE_CODE} at the start of a file.
+     */
+    public void reset(CharSequence text, int start, int end, int state) {
+        this.text = text;
+        this.position = start;
+        this.end = end;
+        this.state = state;
+    }
+
+    /**
+     * Moves to the next token.
+     *
+     * @return {@code true} if there is a token, {@code false} at the end of the range.
+     */
+    public boolean next() {
+        if (position >= end) {
+            return false;
+        }
+        if (state == STATE_BLOCK_COMMENT) {
+            tokenStart = position;
+            finishBlockComment();
+            return token(COMMENT);
+        }
+        if (state == STATE_TEXT_BLOCK) {
+            tokenStart = position;
+            finishTextBlock();
+            return token(STRING);
+        }
+
+        // Skip whitespace
+        while (position < end && classOf(text.charAt(position)) == SPACE) {
+            position++;
+        }
+        if (position >= end) {
+            return false;
+        }
+
+        tokenStart = position;
+        char c = text.charAt(position);
+        switch (classOf(c)) {
+            case LETTER:
+                return token(scanIdentifier() ? KEYWORD : IDENTIFIER);
+            case DIGIT:
+                scanNumber();
+                return token(NUMBER);
+            case DOT:
+                if (position + 1 < end && isDigit(text.charAt(position + 1))) {
+                    scanNumber();
+                    return token(NUMBER);
+                }
+                position++;
+                return token(OPERATOR);
+            case QUOTE:
+                if (startsWith("\"\"\"")) {
+                    position += 3;
+                    state = STATE_TEXT_BLOCK;
+                    finishTextBlock();
+                } else {
+                    scanQuoted('"');
+                }
+                return token(STRING);
+            case APOSTROPHE:
+                scanQuoted('\'');
+                return token(CHARACTER);
+            case SLASH:
+                if (startsWith("//")) {
+                    // To the end of the line
+                    while (position < end && text.charAt(position) != '\n') {
+                        position++;
+                    }
+                    return token(COMMENT);
+                }
+                if (startsWith("/*")) {
+                    position += 2;
+                    state = STATE_BLOCK_COMMENT;
+                    finishBlockComment();
+                    return token(COMMENT);
+                }
+                position++;
+                return token(OPERATOR);
+            case AT:
+                position++;
+                // The name may be qualified, e.g. @java.lang.Override
+                while (position < end && classOf(text.charAt(position)) == LETTER) {
+                    scanIdentifier();
+                    if (position + 1 < end && text.charAt(position) == '.'
+                            && classOf(text.charAt(position + 1)) == LETTER) {
+                        position++;
+                    } else {
+                        break;
+                    }
+                }
+                return token(ANNOTATION);
+            default:
+                position++;
+                return token(OPERATOR);
+        }
+    }
+
+    private boolean token(int type) {
+        tokenType = type;
+        tokenEnd = position;
+        return true;
+    }
+
+    private static int classOf(char c) {
+        if (c < 128) {
+            return CLASSES[c];
+        }
+        if (Character.isJavaIdentifierStart(c)) {
+            return LETTER;
+        }
+        return Character.isWhitespace(c) ? SPACE : OTHER;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int slot(int hash) {
+        return (hash ^ (hash >>> 7)) & (KEYWORD_TABLE_SIZE - 1);
+    }
+
+    private boolean startsWith(String s) {
+        if (position + s.length() > end) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (text.charAt(position + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scans an identifier, hashing it like {@link String#hashCode()} on the way.
+     *
+     * @return {@code true} if the identifier is a keyword, whose index is then stored in {@link #keyword}.
+     */
+    private boolean scanIdentifier() {
+        int start = position;
+        int hash = 0;
+        while (position < end) {
+            char c = text.charAt(position);
+            if (c < 128 ? CLASSES[c] != LETTER && CLASSES[c] != DIGIT : !Character.isJavaIdentifierPart(c)) {
+                break;
+            }
+            hash = 31 * hash + c;
+            position++;
+        }
+        int length = position - start;
+        for (int slot = slot(hash); KEYWORD_TABLE[slot] != null; slot = (slot + 1) & (KEYWORD_TABLE_SIZE - 1)) {
+            char[] candidate = KEYWORD_TABLE[slot];
+            if (candidate.length == length && matches(candidate, start)) {
+                keyword = KEYWORD_INDEX[slot];
+                return true;
+            }
+        }
+        keyword = -1;
+        return false;
+    }
+
+    private boolean matches(char[] candidate, int start) {
+        for (int i = 0; i < candidate.length; i++) {
+            if (text.charAt(start + i) != candidate[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scans a number: decimal, hexadecimal, octal or binary, with underscores, a fraction, an exponent
+     * and a type suffix. Malformed numbers are consumed like valid ones.
+     */
+    private void scanNumber() {
+        boolean hex = startsWith("0x") || startsWith("0X");
+        char previous = 0;
+        while (position < end) {
+            char c = text.charAt(position);
+            boolean exponentSign = (c == '+' || c == '-')
+                    && (hex ? previous == 'p' || previous == 'P' : previous == 'e' || previous == 'E');
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == '.' || exponentSign)) {
+                break;
+            }
+            previous = c;
+            position++;
+        }
+    }
+
+    /**
+     * Scans a string or character literal, which ends at the closing quote or at the end of the line.
+     */
+    private void scanQuoted(char quote) {
+        position++;
+        while (position < end) {
+            char c = text.charAt(position);
+            if (c == quote) {
+                position++;
+                return;
+            }
+            if (c == '\n') {
+                return;
+            }
+            position += c == '\\' ? 2 : 1;
+        }
+        position = end;
+    }
+
+    private void finishBlockComment() {
+        while (position < end) {
+            if (text.charAt(position) == '*' && position + 1 < end && text.charAt(position + 1) == '/') {
+                position += 2;
+                state = STATE_CODE;
+                return;
+            }
+            position++;
+        }
+    }
+
+    private void finishTextBlock() {
+        while (position < end) {
+            char c = text.charAt(position);
+            if (c == '\\') {
+                position += 2;
+            } else if (c == '"' && startsWith("\"\"\"")) {
+                position += 3;
+                state = STATE_CODE;
+                return;
+            } else {
+                position++;
+            }
+        }
+        position = Math.min(position, end);
+    }
+
+    /**
+     * @return The type of the current token, e.g. {@link #KEYWORD}.
+     */
+    public int getTokenType() {
+        return tokenType;
+    }
+
+    /**
+     * @return The offset of the first character of the current token.
+     */
+    public int getTokenStart() {
+        return tokenStart;
+    }
+
+    /**
+     * @return The offset after the last character of the current token.
+     */
+    public int getTokenEnd() {
+        return tokenEnd;
+    }
+
+    /**
+     * @return The index in {@link #KEYWORDS} of the current token if it is a keyword, -1 otherwise.
+     */
+    public int getKeywordIndex() {
+        return tokenType == KEYWORD ? keyword : -1;
+    }
+
+    /**
+     * @return The current keyword, or {@code null} if the current token is not a keyword.
+     */
+    public String getKeyword() {
+        return tokenType == KEYWORD ? KEYWORDS[keyword] : null;
+    }
+
+    /**
+     * Returns the state at the current position: {@link #STATE_BLOCK_COMMENT} or {@link #STATE_TEXT_BLOCK}
+     * inside an unterminated comment or text block, {@link #STATE_CODE} otherwise. Read after the last
+     * token of a range, it is the state to start the next range with.
+     *
+     * @return The current state.
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * Returns the index of a keyword in {@link #KEYWORDS}.
+     *
+     * @param keyword The keyword.
+     * @return The index, or -1 if the word is not a keyword.
+     */
+    public static int indexOfKeyword(String keyword) {
+        for (int k = 0; k < KEYWORDS.length; k++) {
+            if (KEYWORDS[k].equals(keyword)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    // ------------------------------------------------
+    // Optional Test Method
+    // ------------------------------------------------
+
+    public static void main(String[] args) {
+        String sample = "@Override\npublic String toString() { /* block\n comment */ return \"a\\\"b\" + 'c' + 0x1F + 1.5e-3f; }\n"
+                + "String s = \"\"\"\n    text block\n    \"\"\"; // done\n";
+        JavaLexer lexer = new JavaLexer();
+        lexer.reset(sample, 0, sample.length(), STATE_CODE);
+        String[] names = {"IDENTIFIER", "KEYWORD", "COMMENT", "STRING", "CHARACTER", "NUMBER", "ANNOTATION", "OPERATOR"};
+        while (lexer.next()) {
+            if (lexer.getTokenType() != OPERATOR) {
+                System.out.println(names[lexer.getTokenType()] + " "
+                        + sample.substring(lexer.getTokenStart(), lexer.getTokenEnd()).replace("\n", "\\n"));
+            }
+        }
+
+        // Throughput against the four regular expressions the highlighter used before
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 8_000_000) {
+            sb.append("import java.util.List;\n")
+                    .append("public final class Sample {\n")
+                    .append("    /** Counts the items.\n     * @return the count */\n")
+                    .append("    private static int count(List<String> items) {\n")
+                    .append("        int total = 0; // running total\n")
+                    .append("        for (String item : items) {\n")
+                    .append("            if (item != null && !item.isEmpty()) total += 0x1F & item.length();\n")
+                    .append("            else return -1;\n")
+                    .append("        }\n")
+                    .append("        return total * 2 + \"x\".length() + 'c';\n")
+                    .append("    }\n}\n");
+        }
+        String source = sb.toString();
+        Pattern[] patterns = {
+                Pattern.compile("\\b(if|while|for|return|do|else)\\b"),
+                Pattern.compile("//[^\n]*"),
+                Pattern.compile("\\bimport\\s+([\\w\\.]+);\\b"),
+                Pattern.compile("\\b(public|private|protected|final|static|class)\\b")
+        };
+        double megabytes = source.length() / 1_000_000.0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            int tokens = 0;
+            lexer.reset(source, 0, source.length(), STATE_CODE);
+            while (lexer.next()) {
+                tokens++;
+            }
+            long lexed = System.nanoTime();
+            int matches = 0;
+            for (Pattern pattern : patterns) {
+                Matcher matcher = pattern.matcher(source);
+                while (matcher.find()) {
+                    matches++;
+                }
+            }
+            long matched = System.nanoTime();
+            System.out.printf("[JavaLexer] %.1f MB: lexer %.0f MB/s (%d tokens), regex passes %.0f MB/s (%d matches)%n",
+                    megabytes, megabytes / ((lexed - start) / 1e9), tokens,
+                    megabytes / ((matched - lexed) / 1e9), matches);
+        }
+    }
+}
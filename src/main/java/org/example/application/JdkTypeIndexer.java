@@ -0,0 +1,359 @@
+package org.example.application;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds an index of all public types of the running JDK for use in autocompletion.
+ * <p>
+ * The index is built by walking the {@code jrt:/} file system, which exposes the class files of
+ * every system module. Modules are scanned in parallel, only unconditionally exported packages
+ * are visited, and each top-level class file is checked for the {@code public} flag with a
+ * {@link ClassFileReader}, so no class is ever loaded.
+ * <p>
+ * Scanning takes a noticeable moment, so the result is cached in a small binary file together with
+ * the JDK version it was built for. Later startups read the cache instead, which takes milliseconds.
+ * An indexer reads or scans the types only once, however many of its loads run at the same time,
+ * and the cache file is replaced atomically, so a concurrent reader never sees it half-written.
+ * The type names can also be written to a {@link MappedDictionary}, which the editor maps into
+ * memory at startup instead of loading the names into the heap Trie.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     JdkTypeIndexer indexer = new JdkTypeIndexer(Paths.get("jdk_types.idx"));
+ *     indexer.loadTypesInBackground(types -> System.out.println(types.size() + " JDK types"));
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public class JdkTypeIndexer {
+
+    /**
+     * The default location of the cache file, next to the autosave file in the working directory.
+     */
+    public static final Path DEFAULT_CACHE_FILE = Paths.get("jdk_types.idx");
+
+    /**
+     * The default location of the memory-mapped dictionary of JDK type names.
+     */
+    public static final Path DEFAULT_DICTIONARY_FILE = Paths.get("jdk_types.dict");
+
+    private static final int CACHE_MAGIC = 0x4A444B54; // "JDKT"
+    private static final int CACHE_FORMAT_VERSION = 1;
+
+    private final Path cacheFile;
+    private CompletableFuture<List<JdkType>> types; // guarded by this; set by the first load
+
+    /**
+     * Creates an indexer that caches its result in the given file.
+     *
+     * @param cacheFile The cache file.
+     */
+    public JdkTypeIndexer(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * A public type of the JDK.
+     */
+    public static final class JdkType {
+        private final String simpleName;
+        private final String packageName;
+
+        public JdkType(String simpleName, String packageName) {
+            this.simpleName = simpleName;
+            this.packageName = packageName;
+        }
+
+        public String getSimpleName() {
+            return simpleName;
+        }
+
+        public String getPackageName() {
+            return packageName;
+        }
+
+        public String getQualifiedName() {
+            return packageName + "." + simpleName;
+        }
+
+        @Override
+        public String toString() {
+            return getQualifiedName();
+        }
+    }
+
+    /**
+     * Loads the JDK types on a background thread and passes them to the callback on that thread.
+     *
+     * @param callback A callback that receives the list of types.
+     */
+    public void loadTypesInBackground(Consumer<List<JdkType>> callback) {
+        SharedExecutors.background().execute(() -> {
+            try {
+                callback.accept(loadTypes());
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Opens the dictionary of JDK type names on a background thread and passes it to the callback on that thread.
+     *
+     * @param dictionaryFile The dictionary file.
+     * @param score          The ranking score given to the type names when the dictionary is rebuilt.
+     * @param callback       A callback that receives the mapped dictionary.
+     */
+    public void loadDictionaryInBackground(Path dictionaryFile, int score, Consumer<MappedDictionary> callback) {
+        SharedExecutors.background().execute(() -> {
+            try {
+                callback.accept(loadDictionary(dictionaryFile, score));
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Returns a memory-mapped dictionary holding the simple names of the JDK types. The file is
+     * reused if it was written for the running JDK, otherwise it is rebuilt from {@link #loadTypes()}.
+     *
+     * @param dictionaryFile The dictionary file.
+     * @param score          The ranking score given to the type names when the dictionary is rebuilt.
+     * @return The mapped dictionary.
+     * @throws IOException If the dictionary cannot be written or mapped.
+     */
+    public MappedDictionary loadDictionary(Path dictionaryFile, int score) throws IOException {
+        String tag = "jdk-" + Runtime.version() + "/score=" + score;
+        MappedDictionary dictionary = MappedDictionary.openIfTagged(dictionaryFile, tag);
+        if (dictionary != null) {
+            return dictionary;
+        }
+        List<String> names = loadTypes().stream()
+                .map(JdkType::getSimpleName)
+                .distinct()
+                .collect(Collectors.toList());
+        AutoCompleteTrie.writeDictionary(dictionaryFile, tag, names, score);
+        return MappedDictionary.open(dictionaryFile);
+    }
+
+    /**
+     * Returns the JDK types, from the cache file if it was written for the running JDK,
+     * otherwise by scanning the JDK and writing a new cache file.
+     * <p>
+     * The first call reads or scans the types on the calling thread; calls made meanwhile wait for
+     * its result, and later calls return it at once. After a failure, the next call tries again.
+     *
+     * @return The public types of the JDK, sorted by package and name.
+     */
+    public List<JdkType> loadTypes() {
+        CompletableFuture<List<JdkType>> future;
+        boolean first;
+        synchronized (this) {
+            first = types == null || types.isCompletedExceptionally();
+            if (first) {
+                types = new CompletableFuture<>();
+            }
+            future = types;
+        }
+        if (!first) {
+            return future.join();
+        }
+        try {
+            List<JdkType> result = readOrScan();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the types from the cache file, or scans the JDK and writes a new cache file.
+     */
+    private List<JdkType> readOrScan() {
+        String jdkVersion = Runtime.version().toString();
+        List<JdkType> types = readCache(jdkVersion);
+        if (types != null) {
+            return types;
+        }
+
+        types = scan();
+        try {
+            writeCache(jdkVersion, types);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return types;
+    }
+
+    /**
+     * Scans the {@code jrt:/} file system for the public top-level types of exported packages.
+     *
+     * @return The public types of the JDK, sorted by package and name.
+     */
+    public List<JdkType> scan() {
+        FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        List<ModuleDescriptor> modules = ModuleFinder.ofSystem().findAll().stream()
+                .map(ModuleReference::descriptor)
+                .collect(Collectors.toList());
+
+        List<JdkType> types = modules.parallelStream()
+                .flatMap(module -> scanModule(jrt, module))
+                .collect(Collectors.toList());
+        types.sort(Comparator.comparing(JdkType::getPackageName).thenComparing(JdkType::getSimpleName));
+        return types;
+    }
+
+    /**
+     * Scans the exported packages of one module.
+     */
+    private Stream<JdkType> scanModule(FileSystem jrt, ModuleDescriptor module) {
+        List<JdkType> types = new ArrayList<>();
+        for (ModuleDescriptor.Exports export : module.exports()) {
+            if (export.isQualified()) {
+                continue; // only exported to specific modules, e.g. jdk.internal packages
+            }
+            String packageName = export.source();
+            Path directory = jrt.getPath("/modules", module.name(), packageName.replace('.', '/'));
+            try (Stream<Path> files = Files.list(directory)) {
+                files.forEach(file -> {
+                    String fileName = file.getFileName().toString();
+                    if (!fileName.endsWith(".class") || fileName.indexOf('$') >= 0
+                            || fileName.equals("package-info.class")) {
+                        return;
+                    }
+                    if (isPublicClass(file)) {
+                        types.add(new JdkType(fileName.substring(0, fileName.length() - ".class".length()), packageName));
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return types.stream();
+    }
+
+    private static boolean isPublicClass(Path file) {
+        try {
+            return new ClassFileReader(Files.readAllBytes(file)).isPublic();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the cache file if it exists and was written for the given JDK version.
+     * The types are stored grouped by package: for every package its name, the number of
+     * types and their simple names.
+     *
+     * @return The cached types, or {@code null} if there is no usable cache.
+     */
+    private List<JdkType> readCache(String jdkVersion) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_FORMAT_VERSION
+                    || !in.readUTF().equals(jdkVersion)) {
+                return null;
+            }
+            List<JdkType> types = new ArrayList<>(in.readInt());
+            int packageCount = in.readInt();
+            for (int p = 0; p < packageCount; p++) {
+                String packageName = in.readUTF();
+                int typeCount = in.readInt();
+                for (int t = 0; t < typeCount; t++) {
+                    types.add(new JdkType(in.readUTF(), packageName));
+                }
+            }
+            return types;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the types to the cache file, in the format read by {@link #readCache(String)}.
+     * The file is written under a temporary name in the same directory and then moved over the
+     * cache file in one step, so another editor starting meanwhile reads the old or the new file.
+     */
+    private void writeCache(String jdkVersion, List<JdkType> types) throws IOException {
+        Map<String, List<String>> byPackage = new LinkedHashMap<>();
+        for (JdkType type : types) {
+            byPackage.computeIfAbsent(type.getPackageName(), p -> new ArrayList<>()).add(type.getSimpleName());
+        }
+        Path temp = Files.createTempFile(cacheFile.toAbsolutePath().getParent(), cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(CACHE_MAGIC);
+                out.writeInt(CACHE_FORMAT_VERSION);
+                out.writeUTF(jdkVersion);
+                out.writeInt(types.size());
+                out.writeInt(byPackage.size());
+                for (Map.Entry<String, List<String>> entry : byPackage.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (String simpleName : entry.getValue()) {
+                        out.writeUTF(simpleName);
+                    }
+                }
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // ------------------------------------------------
+    // Optional Test Method
+    // ------------------------------------------------
+
+    public static void main(String[] args) {
+        for (int run = 1; run <= 2; run++) {
+            // A new indexer each time, as in a new session: the second one reads the cache file
+            long start = System.nanoTime();
+            List<JdkType> types = new JdkTypeIndexer(DEFAULT_CACHE_FILE).loadTypes();
+            System.out.println("Run " + run + ": " + types.size() + " types in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        JdkTypeIndexer indexer = new JdkTypeIndexer(DEFAULT_CACHE_FILE);
+        for (int run = 1; run <= 2; run++) {
+            try {
+                long start = System.nanoTime();
+                MappedDictionary dictionary = indexer.loadDictionary(DEFAULT_DICTIONARY_FILE, 0);
+                System.out.println("Dictionary run " + run + ": " + dictionary.getSizeInBytes() / 1024 + " KB mapped in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.application;
+
+import java.util.Arrays;
+
+/**
+ * The tokens of every line of a document, with the state the lexer starts each line in.
+ * <p>
+ * Nothing is stored as an object per token. The start states are one {@code int} per line, and the
+ * tokens of a line are packed into one {@code int[]} with two entries per token: its offset in the
+ * line, and its length, {@link JavaLexer} token type and style number packed together. Lines
+ * without tokens share one empty array. Lines added by an edit, and lines whose text an edit
+ * changed, have no tokens ({@code null}) until they are lexed again.
+ * <p>
+ * The start state of a line is the state the lexer ended the previous line in. When a line is lexed
+ * again and ends in the start state stored for the next line, the lines after it cannot have
+ * changed, so an edit is only lexed until that happens.
+ * <p>
+ * Every line also records whether the document's styles match its tokens. Lexing a line into
+ * different tokens, or editing it, leaves it to be styled again, which may happen later than the
+ * lexing, e.g. only once the line is scrolled into view.
+ * <p>
+ * The cache is not thread-safe; {@link SyntaxHighlightTextPane} only uses it on the Event Dispatch Thread.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+final class LineTokenCache {
+
+    /**
+     * The start state of a line whose previous line was never lexed.
+     */
+    static final int UNKNOWN = -1;
+
+    static final int[] NO_TOKENS = new int[0];
+
+    private int[] startStates = new int[16];
+    private int[][] tokens = new int[16][];
+    private boolean[] styled = new boolean[16];
+    private int lineCount;
+
+    /**
+     * Creates a cache for a document of the given number of lines, none of them lexed.
+     *
+     * @param lineCount The number of lines.
+     */
+    LineTokenCache(int lineCount) {
+        splice(0, 0, lineCount);
+    }
+
+    /**
+     * @return The number of lines.
+     */
+    int size() {
+        return lineCount;
+    }
+
+    /**
+     * Replaces {@code removed} lines at {@code index} by {@code added} lines that are not lexed yet.
+     * The lines after them keep their tokens and start states.
+     *
+     * @param index   The first line removed or added.
+     * @param removed The number of lines removed.
+     * @param added   The number of lines added in their place.
+     */
+    void splice(int index, int removed, int added) {
+        int newCount = lineCount - removed + added;
+        if (newCount > startStates.length) {
+            int capacity = Math.max(newCount, startStates.length * 2);
+            startStates = Arrays.copyOf(startStates, capacity);
+            tokens = Arrays.copyOf(tokens, capacity);
+            styled = Arrays.copyOf(styled, capacity);
+        }
+        int moved = lineCount - index - removed;
+        System.arraycopy(startStates, index + removed, startStates, index + added, moved);
+        System.arraycopy(tokens, index + removed, tokens, index + added, moved);
+        System.arraycopy(styled, index + removed, styled, index + added, moved);
+        Arrays.fill(startStates, index, index + added, UNKNOWN);
+        Arrays.fill(tokens, index, index + added, null);
+        Arrays.fill(styled, index, index + added, false);
+        if (newCount < lineCount) {
+            Arrays.fill(tokens, newCount, lineCount, null); // let go of the removed lines
+        }
+        lineCount = newCount;
+        if (lineCount > 0) {
+            startStates[0] = JavaLexer.STATE_CODE;
+        }
+    }
+
+    /**
+     * Drops the tokens of a line whose text changed, keeping its start state.
+     *
+     * @param line The line.
+     */
+    void invalidate(int line) {
+        tokens[line] = null;
+        styled[line] = false;
+    }
+
+    /**
+     * @param line The line.
+     * @return The state the lexer starts the line in, or {@link #UNKNOWN}.
+     */
+    int getStartState(int line) {
+        return startStates[line];
+    }
+
+    /**
+     * @param line The line.
+     * @return The packed tokens of the line, or {@code null} if it has not been lexed since it changed.
+     */
+    int[] getTokens(int line) {
+        return tokens[line];
+    }
+
+    /**
+     * Stores the tokens of a lexed line, and the state it ends in as the start state of the next line.
+     * A line whose tokens changed has to be styled again.
+     *
+     * @param line       The line.
+     * @param lineTokens The packed tokens.
+     * @param endState   The state of the lexer at the end of the line.
+     */
+    void set(int line, int[] lineTokens, int endState) {
+        if (!Arrays.equals(tokens[line], lineTokens)) {
+            tokens[line] = lineTokens;
+            styled[line] = false;
+        }
+        if (line + 1 < lineCount) {
+            startStates[line + 1] = endState;
+        }
+    }
+
+    /**
+     * @param line The line.
+     * @return {@code true} if the line is lexed but the document's styles do not match its tokens yet.
+     */
+    boolean needsStyling(int line) {
+        return tokens[line] != null && !styled[line];
+    }
+
+    /**
+     * Records that the document's styles now match the tokens of a line.
+     *
+     * @param line The line.
+     */
+    void setStyled(int line) {
+        styled[line] = true;
+    }
+
+    /**
+     * Finds the first line from the given one that needs styling.
+     *
+     * @param from The line to start from.
+     * @return The line, or -1 if no line from there needs styling.
+     */
+    int nextToStyle(int from) {
+        for (int line = from; line < lineCount; line++) {
+            if (needsStyling(line)) {
+                return line;
+            }
+        }
+        return -1;
+    }
+
+    // Packed tokens
+
+    /**
+     * Packs the length, type and style of a token into one {@code int}.
+     *
+     * @param length The length of the token, below 2^23.
+     * @param type   The {@link JavaLexer} token type, below 16.
+     * @param style  The style number, below 16.
+     * @return The packed value, stored after the token's offset.
+     */
+    static int pack(int length, int type, int style) {
+        return length << 8 | type << 4 | style;
+    }
+
+    static int tokenCount(int[] lineTokens) {
+        return lineTokens.length / 2;
+    }
+
+    static int tokenStart(int[] lineTokens, int token) {
+        return lineTokens[2 * token];
+    }
+
+    static int tokenLength(int[] lineTokens, int token) {
+        return lineTokens[2 * token + 1] >>> 8;
+    }
+
+    static int tokenType(int[] lineTokens, int token) {
+        return (lineTokens[2 * token + 1] >>> 4) & 0xF;
+    }
+
+    static int tokenStyle(int[] lineTokens, int token) {
+        return lineTokens[2 * token + 1] & 0xF;
+    }
+}
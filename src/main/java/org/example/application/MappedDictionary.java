@@ -0,0 +1,481 @@
+package org.example.application;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A read-only completion dictionary stored in a file and queried straight from memory.
+ * <p>
+ * The file holds the nodes of a Trie in a compact binary form. Opening it maps the whole file
+ * into memory with a {@link MappedByteBuffer}; nothing is deserialized, and nodes are read on the
+ * fly while a search walks them. Startup therefore costs no more than mapping the file, and the
+ * dictionary lives in the operating system's page cache instead of on the Java heap.
+ * <p>
+ * The file also holds the camel-hump postings of its words, the same ones a {@link CamelCaseIndex}
+ * builds, so camel-hump queries are answered from the mapping as well.
+ * <p>
+ * File layout (big-endian):
+ * <pre>
+ *     header:   int magic, int format version, UTF tag (e.g. the JDK version the words come from)
+ *     nodes:    byte flags (1 = a word ends here), int score, int best score,
+ *               unsigned short child count, then per child: char key, int offset of the child
+ *     words:    per word with two or more humps: int score, unsigned short length, UTF-8 bytes
+ *     keys:     per posting key, ascending: long key, int index of its first posting, int posting count
+ *     postings: int offset of a word record, grouped by key
+ *     trailer:  int offset of the root node, int offset of the words, int offset of the keys, int key count
+ * </pre>
+ * Children are listed in ascending character order, so a child is found with a binary search.
+ * Nodes are written after their children and a node shared by several parents is written once.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     AutoCompleteTrie.writeDictionary(Paths.get("types.dict"), "v1", words, 0);
+ *     MappedDictionary dictionary = MappedDictionary.open(Paths.get("types.dict"));
+ *     autoComplete.mountDictionary(dictionary);
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public class MappedDictionary {
+
+    private static final int MAGIC = 0x44494354; // "DICT"
+    private static final int FORMAT_VERSION = 2;
+
+    private static final int HEADER_SIZE = 4 + 4 + 2; // before the bytes of the tag
+    private static final int TRAILER_SIZE = 4 + 4 + 4 + 4;
+    private static final int NODE_HEADER_SIZE = 1 + 4 + 4 + 2;
+    private static final int CHILD_ENTRY_SIZE = 2 + 4;
+    private static final int WORD_HEADER_SIZE = 4 + 2;
+    private static final int KEY_ENTRY_SIZE = 8 + 4 + 4;
+
+    private final ByteBuffer buffer;
+    private final String tag;
+    private final MappedNode root;
+    private final int keysOffset;
+    private final int keyCount;
+    private final int postingsOffset;
+
+    private MappedDictionary(ByteBuffer buffer, String tag, int rootOffset, int keysOffset, int keyCount) {
+        this.buffer = buffer;
+        this.tag = tag;
+        this.root = new MappedNode(buffer, rootOffset);
+        this.keysOffset = keysOffset;
+        this.keyCount = keyCount;
+        this.postingsOffset = keysOffset + keyCount * KEY_ENTRY_SIZE;
+    }
+
+    /**
+     * Maps a dictionary file into memory.
+     *
+     * @param file The dictionary file.
+     * @return The mapped dictionary.
+     * @throws IOException If the file cannot be read, is not a dictionary file, or is truncated or corrupt.
+     */
+    public static MappedDictionary open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Dictionary file too large: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int size = buffer.capacity();
+        if (size < HEADER_SIZE + TRAILER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a dictionary file: " + file);
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported dictionary format version " + buffer.getInt(4) + ": " + file);
+        }
+        int tagLength = Short.toUnsignedInt(buffer.getShort(8));
+        int nodesStart = HEADER_SIZE + tagLength;
+        int trailer = size - TRAILER_SIZE;
+        if (nodesStart + NODE_HEADER_SIZE > trailer) {
+            throw new IOException("Truncated dictionary file: " + file);
+        }
+        byte[] tagBytes = new byte[tagLength];
+        buffer.position(HEADER_SIZE);
+        buffer.get(tagBytes);
+        // The tag is written with writeUTF, which only differs from UTF-8 for rare characters
+        String tag = new String(tagBytes, StandardCharsets.UTF_8);
+
+        int rootOffset = buffer.getInt(trailer);
+        int wordsOffset = buffer.getInt(trailer + 4);
+        int keysOffset = buffer.getInt(trailer + 8);
+        int keyCount = buffer.getInt(trailer + 12);
+        // The root is written last among the nodes, so it must end right where the words start
+        if (wordsOffset < nodesStart + NODE_HEADER_SIZE || wordsOffset > keysOffset || keysOffset > trailer
+                || keyCount < 0 || keyCount > (trailer - keysOffset) / KEY_ENTRY_SIZE
+                || rootOffset < nodesStart || rootOffset > wordsOffset - NODE_HEADER_SIZE
+                || rootOffset + NODE_HEADER_SIZE
+                + Short.toUnsignedInt(buffer.getShort(rootOffset + 9)) * CHILD_ENTRY_SIZE != wordsOffset
+                || !hasValidPostings(buffer, wordsOffset, keysOffset, keyCount, trailer)) {
+            throw new IOException("Corrupt dictionary file: " + file);
+        }
+        return new MappedDictionary(buffer, tag, rootOffset, keysOffset, keyCount);
+    }
+
+    /**
+     * Checks that the keys are ascending and cover the postings exactly, in order, and that every
+     * posting points at a word record lying within the words.
+     */
+    private static boolean hasValidPostings(ByteBuffer buffer, int wordsOffset, int keysOffset, int keyCount,
+                                            int trailer) {
+        int postingsOffset = keysOffset + keyCount * KEY_ENTRY_SIZE;
+        if ((trailer - postingsOffset) % 4 != 0) {
+            return false;
+        }
+        int postingCount = (trailer - postingsOffset) / 4;
+        int next = 0;
+        for (int k = 0; k < keyCount; k++) {
+            int entry = keysOffset + k * KEY_ENTRY_SIZE;
+            if ((k > 0 && buffer.getLong(entry) <= buffer.getLong(entry - KEY_ENTRY_SIZE))
+                    || buffer.getInt(entry + 8) != next || buffer.getInt(entry + 12) <= 0) {
+                return false;
+            }
+            next += buffer.getInt(entry + 12);
+            if (next > postingCount || next < 0) {
+                return false;
+            }
+        }
+        if (next != postingCount) {
+            return false;
+        }
+        for (int i = 0; i < postingCount; i++) {
+            int word = buffer.getInt(postingsOffset + 4 * i);
+            if (word < wordsOffset || word > keysOffset - WORD_HEADER_SIZE
+                    || word + WORD_HEADER_SIZE + Short.toUnsignedInt(buffer.getShort(word + 4)) > keysOffset) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Opens a dictionary file only if it exists and carries the given tag.
+     *
+     * @param file The dictionary file.
+     * @param tag  The expected tag.
+     * @return The mapped dictionary, or {@code null} if the file is missing, unreadable or was written with another tag.
+     */
+    public static MappedDictionary openIfTagged(Path file, String tag) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            MappedDictionary dictionary = open(file);
+            return dictionary.getTag().equals(tag) ? dictionary : null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the Trie below the given root to a dictionary file.
+     * <p>
+     * The nodes go to a temporary file in the same directory, which then replaces the file in one
+     * atomic move. A file that is mapped elsewhere, or read by another editor starting at the same
+     * time, is therefore never seen half-written; readers keep the version they mapped.
+     *
+     * @param file The file to write.
+     * @param tag  A free-form tag stored in the header, used to tell whether the file is outdated.
+     * @param root The root of the Trie.
+     * @throws IOException If the file cannot be written.
+     */
+    static void write(Path file, String tag, DictionaryNode root) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(tag);
+                int rootOffset = writeNode(out, root, new IdentityHashMap<>());
+                int wordsOffset = out.size();
+                Map<Long, List<Integer>> postings = writeWords(out, root);
+                int keysOffset = out.size();
+                int start = 0;
+                for (Map.Entry<Long, List<Integer>> entry : postings.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    out.writeInt(start);
+                    out.writeInt(entry.getValue().size());
+                    start += entry.getValue().size();
+                }
+                for (List<Integer> words : postings.values()) {
+                    for (int word : words) {
+                        out.writeInt(word);
+                    }
+                }
+                if (out.size() < 0) {
+                    throw new IOException("Dictionary too large");
+                }
+                out.writeInt(rootOffset);
+                out.writeInt(wordsOffset);
+                out.writeInt(keysOffset);
+                out.writeInt(postings.size());
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes the children of a node and then the node itself.
+     *
+     * @return The file offset of the node.
+     */
+    private static int writeNode(DataOutputStream out, DictionaryNode node, Map<DictionaryNode, Integer> written)
+            throws IOException {
+        Integer known = written.get(node);
+        if (known != null) {
+            return known;
+        }
+        int childCount = node.getChildCount();
+        char[] keys = new char[childCount];
+        int[] childOffsets = new int[childCount];
+        int rank = 0;
+        for (DictionaryNode.ChildCursor children = node.childCursor(); children.next(); rank++) {
+            keys[rank] = children.key();
+            childOffsets[rank] = writeNode(out, children.node(), written);
+        }
+
+        int offset = out.size();
+        if (offset < 0) {
+            throw new IOException("Dictionary too large");
+        }
+        out.writeByte(node.isWord() ? 1 : 0);
+        out.writeInt(node.getScore());
+        out.writeInt(node.getBestScore());
+        out.writeShort(childCount);
+        for (int i = 0; i < childCount; i++) {
+            out.writeChar(keys[i]);
+            out.writeInt(childOffsets[i]);
+        }
+        written.put(node, offset);
+        return offset;
+    }
+
+    /**
+     * Writes a record for every word with two or more humps.
+     *
+     * @return The offsets of the records posted under each camel-hump key, by ascending key.
+     */
+    private static Map<Long, List<Integer>> writeWords(DataOutputStream out, DictionaryNode root) throws IOException {
+        List<String> words = new ArrayList<>();
+        List<Integer> scores = new ArrayList<>();
+        forEachWord(root, new StringBuilder(), (word, score) -> {
+            words.add(word);
+            scores.add(score);
+        });
+        Map<Long, List<Integer>> postings = new TreeMap<>(); // keys are never negative, so this is file order
+        long[] keys = new long[CamelCaseIndex.MAX_POSTING_KEYS];
+        for (int i = 0; i < words.size(); i++) {
+            int keyCount = CamelCaseIndex.postingKeys(words.get(i), keys);
+            byte[] bytes = words.get(i).getBytes(StandardCharsets.UTF_8);
+            if (keyCount == 0 || bytes.length > 0xFFFF) {
+                continue;
+            }
+            int offset = out.size();
+            out.writeInt(scores.get(i));
+            out.writeShort(bytes.length);
+            out.write(bytes);
+            for (int k = 0; k < keyCount; k++) {
+                List<Integer> posted = postings.computeIfAbsent(keys[k], key -> new ArrayList<>());
+                if (posted.isEmpty() || posted.get(posted.size() - 1) != offset) {
+                    posted.add(offset); // the same initials can repeat within one word
+                }
+            }
+        }
+        return postings;
+    }
+
+    /**
+     * Offers the words posted under the key of a camel-hump query to its matches.
+     *
+     * @param matches The matches of the query.
+     */
+    void collect(CamelCaseIndex.Matches matches) {
+        long key = matches.key();
+        int low = 0;
+        int high = keyCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = keysOffset + mid * KEY_ENTRY_SIZE;
+            long found = buffer.getLong(entry);
+            if (found < key) {
+                low = mid + 1;
+            } else if (found > key) {
+                high = mid - 1;
+            } else {
+                int start = postingsOffset + 4 * buffer.getInt(entry + 8);
+                int end = start + 4 * buffer.getInt(entry + 12);
+                for (int posting = start; posting < end; posting += 4) {
+                    int word = buffer.getInt(posting);
+                    byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(word + 4))];
+                    buffer.get(word + WORD_HEADER_SIZE, bytes);
+                    matches.offer(new String(bytes, StandardCharsets.UTF_8), buffer.getInt(word));
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the tag the dictionary was written with.
+     *
+     * @return The tag.
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Returns the size of the dictionary file.
+     *
+     * @return The size in bytes.
+     */
+    public int getSizeInBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Returns the root node of the dictionary.
+     *
+     * @return The root node.
+     */
+    DictionaryNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Passes every word of the dictionary and its score to the consumer, in alphabetical order.
+     *
+     * @param consumer The consumer receiving the words and scores.
+     */
+    public void forEachWord(ObjIntConsumer<String> consumer) {
+        forEachWord(root, new StringBuilder(), consumer);
+    }
+
+    private static void forEachWord(DictionaryNode node, StringBuilder text, ObjIntConsumer<String> consumer) {
+        if (node.isWord()) {
+            consumer.accept(text.toString(), node.getScore());
+        }
+        for (DictionaryNode.ChildCursor children = node.childCursor(); children.next(); ) {
+            text.append(children.key());
+            forEachWord(children.node(), text, consumer);
+            text.setLength(text.length() - 1);
+        }
+    }
+
+    /**
+     * Returns every word of the dictionary.
+     *
+     * @return The words in alphabetical order.
+     */
+    public List<String> getWords() {
+        List<String> words = new ArrayList<>();
+        forEachWord((word, score) -> words.add(word));
+        return words;
+    }
+
+    /**
+     * A view of one node record in the mapped file. Only the buffer and the offset are kept;
+     * every value is read from the mapping when asked for.
+     */
+    private static final class MappedNode implements DictionaryNode {
+        private final ByteBuffer buffer;
+        private final int offset;
+
+        MappedNode(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean isWord() {
+            return buffer.get(offset) != 0;
+        }
+
+        @Override
+        public int getScore() {
+            return buffer.getInt(offset + 1);
+        }
+
+        @Override
+        public int getBestScore() {
+            return buffer.getInt(offset + 5);
+        }
+
+        @Override
+        public int getChildCount() {
+            return Short.toUnsignedInt(buffer.getShort(offset + 9));
+        }
+
+        private char keyAt(int rank) {
+            return buffer.getChar(offset + NODE_HEADER_SIZE + rank * CHILD_ENTRY_SIZE);
+        }
+
+        private DictionaryNode childAt(int rank) {
+            return new MappedNode(buffer, buffer.getInt(offset + NODE_HEADER_SIZE + rank * CHILD_ENTRY_SIZE + 2));
+        }
+
+        @Override
+        public ChildCursor childCursor() {
+            int childCount = getChildCount();
+            return new ChildCursor() {
+                private int rank = -1;
+
+                @Override
+                public boolean next() {
+                    return ++rank < childCount;
+                }
+
+                @Override
+                public char key() {
+                    return keyAt(rank);
+                }
+
+                @Override
+                public DictionaryNode node() {
+                    return childAt(rank);
+                }
+            };
+        }
+
+        @Override
+        public DictionaryNode getChild(char c) {
+            int low = 0;
+            int high = getChildCount() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char key = keyAt(mid);
+                if (key < c) {
+                    low = mid + 1;
+                } else if (key > c) {
+                    high = mid - 1;
+                } else {
+                    return childAt(mid);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The position of a prefix query in a dictionary, kept so the next query can start from it.
+ * <p>
+ * While the user types {@code p}, {@code pr}, {@code pri}, each query only extends the previous
+ * prefix by a character. A cursor remembers, for every character of the prefix, the nodes it leads
+ * to and the words found below them, so moving to a longer prefix only descends the new characters
+ * and moving to a shorter one (backspace) only goes back to an earlier cursor. When the previous
+ * query found every word below its nodes, the words for the longer prefix are simply the ones that
+ * still match it and no search is needed at all.
+ * <p>
+ * A query with a deadline may stop before it has found all of its words. Such partial results are
+ * returned but not remembered, so the next query for the cursor searches again.
+ * <p>
+ * Cursors are immutable apart from the cached results, so concurrent queries can share them.
+ * A cursor belongs to one version of a dictionary: it is only reused while the root node is the same
+ * object, so a new version of the Trie starts again from the root.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+final class PrefixCursor {
+    private final PrefixCursor parent;
+    private final DictionaryNode root;
+    private final String prefix;
+    private final List<DictionaryNode> nodes; // every spelling of the prefix, e.g. "Str" and "str"
+    private final List<String> texts;
+    private volatile Results results;
+
+    private PrefixCursor(PrefixCursor parent, DictionaryNode root, String prefix,
+                         List<DictionaryNode> nodes, List<String> texts) {
+        this.parent = parent;
+        this.root = root;
+        this.prefix = prefix;
+        this.nodes = nodes;
+        this.texts = texts;
+    }
+
+    /**
+     * The words found for a cursor and whether they are all the words below its nodes.
+     */
+    static final class Results {
+        private final List<RankedWord> words;
+        private final int limit;
+        private final boolean complete;
+        private final boolean partial;
+
+        private Results(List<RankedWord> words, int limit, boolean partial) {
+            this.words = words;
+            this.limit = limit;
+            this.complete = !partial && words.size() < limit;
+            this.partial = partial;
+        }
+
+        /**
+         * Returns the best words, at most {@code limit} of them.
+         *
+         * @param limit The maximum number of words.
+         * @return The words, best score first. The list must not be modified.
+         */
+        List<RankedWord> top(int limit) {
+            return words.size() > limit ? words.subList(0, limit) : words;
+        }
+
+        /**
+         * @return {@code true} if the deadline passed before all the words were found.
+         */
+        boolean isPartial() {
+            return partial;
+        }
+    }
+
+    /**
+     * Moves a cursor to the given prefix, reusing as much of it as possible.
+     *
+     * @param cursor The previous cursor, or {@code null}.
+     * @param root   The root of the dictionary version to search.
+     * @param prefix The new prefix.
+     * @return The cursor for the prefix.
+     */
+    static PrefixCursor moveTo(PrefixCursor cursor, DictionaryNode root, String prefix) {
+        if (cursor == null || cursor.root != root) {
+            cursor = new PrefixCursor(null, root, "", List.of(root), List.of(""));
+        }
+        // Go back to the longest common prefix ...
+        int common = 0;
+        int max = Math.min(cursor.prefix.length(), prefix.length());
+        while (common < max && cursor.prefix.charAt(common) == prefix.charAt(common)) {
+            common++;
+        }
+        while (cursor.prefix.length() > common) {
+            cursor = cursor.parent;
+        }
+        // ... and descend the characters that are new
+        for (int i = common; i < prefix.length(); i++) {
+            List<DictionaryNode> nextNodes = new ArrayList<>();
+            List<String> nextTexts = new ArrayList<>();
+            DictionarySearch.descend(cursor.nodes, cursor.texts, prefix.charAt(i), nextNodes, nextTexts);
+            cursor = new PrefixCursor(cursor, root, prefix.substring(0, i + 1), nextNodes, nextTexts);
+        }
+        return cursor;
+    }
+
+    /**
+     * Returns the highest-ranked words starting with the prefix, or as many of them as can be found
+     * before the deadline.
+     *
+     * @param limit    The maximum number of words to return.
+     * @param deadline The {@link System#nanoTime()} after which the search stops, or
+     *                 {@link DictionarySearch#NO_DEADLINE}.
+     * @return The words found, which are partial if the deadline passed first.
+     */
+    Results results(int limit, long deadline) {
+        Results cached = results;
+        if (cached == null || (!cached.complete && cached.limit < limit)) {
+            cached = compute(limit, deadline);
+            if (cached.partial) {
+                return cached;
+            }
+            results = cached;
+        }
+        return cached;
+    }
+
+    private Results compute(int limit, long deadline) {
+        Results parentResults = parent != null ? parent.results : null;
+        if (parentResults != null && parentResults.complete) {
+            // The parent has every word below it, so narrowing it down is enough
+            List<RankedWord> words = new ArrayList<>();
+            for (RankedWord word : parentResults.words) {
+                if (word.getWord().regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    words.add(word);
+                }
+            }
+            return new Results(Collections.unmodifiableList(words), Integer.MAX_VALUE, false);
+        }
+        List<RankedWord> words = new ArrayList<>();
+        boolean finished = DictionarySearch.collectTopWords(nodes, texts, limit, words, deadline);
+        return new Results(Collections.unmodifiableList(words), limit, !finished);
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A word found by a dictionary search, together with its ranking score.
+ * <p>
+ * Ranked words are ordered by score (highest first) and then alphabetically, which is the order
+ * in which suggestions are shown. Keeping the score lets results from different dictionaries
+ * be merged in that order.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+final class RankedWord implements Comparable<RankedWord> {
+    private final String word;
+    private final int score;
+
+    RankedWord(String word, int score) {
+        this.word = word;
+        this.score = score;
+    }
+
+    String getWord() {
+        return word;
+    }
+
+    int getScore() {
+        return score;
+    }
+
+    @Override
+    public int compareTo(RankedWord other) {
+        if (score != other.score) {
+            return Integer.compare(other.score, score);
+        }
+        return word.compareTo(other.word);
+    }
+
+    /**
+     * Merges two lists that are already in ranking order, skipping words that appear in both.
+     *
+     * @param first  The first list.
+     * @param second The second list.
+     * @param limit  The maximum number of words in the result.
+     * @return Up to {@code limit} words in ranking order.
+     */
+    static List<RankedWord> merge(List<RankedWord> first, List<RankedWord> second, int limit) {
+        List<RankedWord> merged = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            RankedWord next;
+            if (j == second.size() || (i < first.size() && first.get(i).compareTo(second.get(j)) <= 0)) {
+                next = first.get(i++);
+            } else {
+                next = second.get(j++);
+            }
+            if (!containsWord(merged, next.word)) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the words of a list of ranked words, in the same order.
+     *
+     * @param ranked The ranked words.
+     * @return The words alone.
+     */
+    static List<String> words(List<RankedWord> ranked) {
+        List<String> words = new ArrayList<>(ranked.size());
+        for (RankedWord rankedWord : ranked) {
+            words.add(rankedWord.word);
+        }
+        return words;
+    }
+
+    private static boolean containsWord(List<RankedWord> list, String word) {
+        for (RankedWord rankedWord : list) {
+            if (rankedWord.word.equals(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return word + " (" + score + ")";
+    }
+}
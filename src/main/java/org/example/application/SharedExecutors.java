@@ -0,0 +1,138 @@
+package org.example.application;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads shared by every completion component of the process.
+ * <p>
+ * An editor with many open documents must not start a few threads per document. Queries of all
+ * documents run on one pool with a thread per core, and background work (loading keywords,
+ * scanning the JDK, reading history files) runs on a second pool whose idle threads stop after a
+ * while. Components that need their background tasks to run one at a time and in order, like the
+ * loads of an {@link AutoCompleteTrie}, get a {@link #serial()} executor, which queues the tasks
+ * and runs them on the shared pool without owning a thread. Periodic work, like writing usage counts
+ * every few minutes, is timed by a single shared timer thread, which hands each run to the background pool.
+ * <p>
+ * All threads are daemon threads, so they never keep the application running and nothing has to
+ * shut the pools down.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+final class SharedExecutors {
+
+    private static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final ExecutorService QUERIES =
+            Executors.newFixedThreadPool(THREADS, daemonThreads("completion-query"));
+
+    private static final ExecutorService BACKGROUND = newBackgroundPool();
+
+    private static final ScheduledExecutorService TIMER =
+            Executors.newSingleThreadScheduledExecutor(daemonThreads("completion-timer"));
+
+    private SharedExecutors() {
+    }
+
+    /**
+     * Returns the pool running suggestion queries.
+     *
+     * @return The shared query pool.
+     */
+    static ExecutorService queries() {
+        return QUERIES;
+    }
+
+    /**
+     * Returns the pool running background work.
+     *
+     * @return The shared background pool.
+     */
+    static ExecutorService background() {
+        return BACKGROUND;
+    }
+
+    /**
+     * Creates an executor that runs its tasks one at a time, in submission order, on the background pool.
+     *
+     * @return A new serial executor.
+     */
+    static Executor serial() {
+        return new SerialExecutor(BACKGROUND);
+    }
+
+    /**
+     * Runs a task on the background pool at a fixed rate. The timer thread only hands the task over,
+     * so a slow task does not delay the other periodic tasks.
+     *
+     * @param task         The task.
+     * @param initialDelay The time before the first run.
+     * @param period       The time between the starts of two runs.
+     * @param unit         The unit of the delay and period.
+     * @return A future that stops the periodic runs when cancelled.
+     */
+    static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return TIMER.scheduleAtFixedRate(() -> BACKGROUND.execute(task), initialDelay, period, unit);
+    }
+
+    private static ExecutorService newBackgroundPool() {
+        // Core threads equal to the maximum, as a queueing pool never grows past its core size
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("completion-background"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Runs tasks one after another on a pool: a task is handed to the pool only when the previous one is done.
+     */
+    private static final class SerialExecutor implements Executor {
+        private final Executor pool;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private Runnable active;
+
+        SerialExecutor(Executor pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(() -> {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (active == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if (active != null) {
+                pool.execute(active);
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.application;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The identifiers used in all open documents, with the number of times each one occurs.
+ * <p>
+ * One index serves the whole process ({@link #global()}): every {@link DocumentIdentifierIndex}
+ * adds the identifiers of its lines to it, and completion searches it for names used in any open
+ * file. An identifier is stored once, however many documents and lines use it: {@link #retain(String)}
+ * returns the instance held by the index, and the documents keep that instance in their lines.
+ * <p>
+ * The index is split into shards by the first character of the identifier, ignoring case, so all
+ * the spellings matching a prefix are in the same shard. Each shard has its own {@link StampedLock},
+ * so documents typed in at the same time and queries running on other threads only wait for each
+ * other when they use the same shard, and never for a lock on the whole index.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     SharedIdentifierIndex index = SharedIdentifierIndex.global();
+ *     String name = index.retain("counter");
+ *     List&lt;String&gt; names = index.search("cou", 10); // [counter]
+ *     index.release(name);
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public final class SharedIdentifierIndex {
+
+    private static final SharedIdentifierIndex GLOBAL = new SharedIdentifierIndex();
+
+    private static final int SHARD_COUNT = 64; // a power of two
+
+    /**
+     * Case-insensitive order, so all spellings matching a prefix are next to each other.
+     */
+    private static final Comparator<String> ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final Shard[] shards = new Shard[SHARD_COUNT];
+
+    /**
+     * Creates an empty index of its own; most callers should share {@link #global()} instead.
+     */
+    public SharedIdentifierIndex() {
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Returns the index shared by the whole process.
+     *
+     * @return The global index.
+     */
+    public static SharedIdentifierIndex global() {
+        return GLOBAL;
+    }
+
+    /**
+     * One part of the index: the identifiers starting with a group of characters.
+     */
+    private static final class Shard {
+        final StampedLock lock = new StampedLock();
+        final NavigableMap<String, int[]> counts = new TreeMap<>(ORDER); // identifier -> {reference count}
+    }
+
+    private Shard shardFor(String text) {
+        // Folded the same way as String.CASE_INSENSITIVE_ORDER, so every spelling gets the same shard
+        char c = Character.toLowerCase(Character.toUpperCase(text.charAt(0)));
+        return shards[(c ^ (c >>> 6)) & (SHARD_COUNT - 1)];
+    }
+
+    /**
+     * Counts one more occurrence of an identifier.
+     *
+     * @param identifier The identifier, not empty.
+     * @return The instance of the identifier held by the index, to be passed to {@link #release(String)}.
+     */
+    public String retain(String identifier) {
+        Shard shard = shardFor(identifier);
+        long stamp = shard.lock.writeLock();
+        try {
+            Map.Entry<String, int[]> entry = shard.counts.ceilingEntry(identifier);
+            if (entry != null && entry.getKey().equals(identifier)) {
+                entry.getValue()[0]++;
+                return entry.getKey();
+            }
+            shard.counts.put(identifier, new int[]{1});
+            return identifier;
+        } finally {
+            shard.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Counts one occurrence of an identifier less, removing it when none are left.
+     *
+     * @param identifier The identifier.
+     */
+    public void release(String identifier) {
+        Shard shard = shardFor(identifier);
+        long stamp = shard.lock.writeLock();
+        try {
+            int[] count = shard.counts.get(identifier);
+            if (count != null && --count[0] == 0) {
+                shard.counts.remove(identifier);
+            }
+        } finally {
+            shard.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the identifiers that start with the given prefix, ignoring case.
+     * The most frequently used identifiers come first, then alphabetical order.
+     * The prefix itself is left out when its only occurrence is the word being typed.
+     *
+     * @param prefix The prefix to search for.
+     * @param limit  The maximum number of identifiers to return.
+     * @return Up to {@code limit} identifiers.
+     */
+    public List<String> search(String prefix, int limit) {
+        List<Map.Entry<String, int[]>> matches = new ArrayList<>();
+        if (prefix.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        Shard shard = shardFor(prefix);
+        long stamp = shard.lock.readLock();
+        try {
+            // Spellings equal to the prefix ignoring case may sort just before it
+            for (Map.Entry<String, int[]> entry : shard.counts.headMap(prefix, false).descendingMap().entrySet()) {
+                if (!entry.getKey().equalsIgnoreCase(prefix)) {
+                    break;
+                }
+                matches.add(Map.entry(entry.getKey(), entry.getValue().clone()));
+            }
+            for (Map.Entry<String, int[]> entry : shard.counts.tailMap(prefix, true).entrySet()) {
+                if (!entry.getKey().regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    break;
+                }
+                matches.add(Map.entry(entry.getKey(), entry.getValue().clone()));
+            }
+        } finally {
+            shard.lock.unlockRead(stamp);
+        }
+
+        matches.removeIf(entry -> entry.getKey().equals(prefix) && entry.getValue()[0] == 1);
+        matches.sort((a, b) -> a.getValue()[0] != b.getValue()[0]
+                ? Integer.compare(b.getValue()[0], a.getValue()[0])
+                : a.getKey().compareTo(b.getKey()));
+        List<String> results = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            results.add(matches.get(i).getKey());
+        }
+        return results;
+    }
+
+    /**
+     * Returns how many times an identifier occurs in all the indexed documents.
+     *
+     * @param identifier The identifier.
+     * @return The reference count, 0 if it does not occur.
+     */
+    public int getReferenceCount(String identifier) {
+        if (identifier.isEmpty()) {
+            return 0;
+        }
+        Shard shard = shardFor(identifier);
+        long stamp = shard.lock.readLock();
+        try {
+            int[] count = shard.counts.get(identifier);
+            return count == null ? 0 : count[0];
+        } finally {
+            shard.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of distinct identifiers. Shards are counted one after another, so the
+     * result may mix states while documents are being edited.
+     *
+     * @return The number of distinct identifiers.
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            long stamp = shard.lock.readLock();
+            try {
+                size += shard.counts.size();
+            } finally {
+                shard.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+}
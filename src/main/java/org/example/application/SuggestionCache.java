@@ -0,0 +1,201 @@
+package org.example.application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A bounded least-recently-used cache of prefix to suggestion list, used by {@link AutoCompleteTrie}.
+ * <p>
+ * A few prefixes ({@code pu}, {@code st}, {@code re}) are typed over and over, so their suggestions
+ * are kept instead of being searched again. When the capacity is reached, the prefix that was used
+ * least recently is evicted.
+ * <p>
+ * Inserting a word can only change the prefix matches of the prefixes of that word, so only those
+ * entries are invalidated. Entries that also contain camel-hump or typo-tolerant matches are marked as
+ * approximate, because any new word may change those, and they are invalidated by every insert.
+ * <p>
+ * A search that started before an invalidation could store a result computed from the old words.
+ * To prevent that, the cache has a version that every invalidation increments; a result is only
+ * stored if the version is still the one read before the search started.
+ * <p>
+ * Hits, misses, evictions and invalidations are counted, so the capacity can be sized from real use.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public class SuggestionCache {
+
+    private final int capacity;
+    private final LinkedHashMap<String, Entry> entries;
+    private long version;
+
+    // Statistics
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Creates a cache holding at most {@code capacity} prefixes.
+     *
+     * @param capacity The maximum number of cached prefixes; 0 disables the cache.
+     */
+    public SuggestionCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > SuggestionCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * A cached suggestion list and the limit it was computed with.
+     */
+    private static final class Entry {
+        final List<String> words;
+        final int limit;
+        final boolean approximate;
+
+        Entry(List<String> words, int limit, boolean approximate) {
+            this.words = words;
+            this.limit = limit;
+            this.approximate = approximate;
+        }
+    }
+
+    /**
+     * Returns the version to pass to {@link #put(String, int, List, boolean, long)} after a search.
+     *
+     * @return The current version.
+     */
+    synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Looks up the suggestions for a prefix. A list cached for a larger limit also answers smaller ones.
+     *
+     * @param prefix The prefix.
+     * @param limit  The maximum number of suggestions.
+     * @return A copy of the cached suggestions, or {@code null} on a miss.
+     */
+    synchronized List<String> get(String prefix, int limit) {
+        Entry entry = entries.get(prefix);
+        if (entry == null || (entry.limit < limit && entry.words.size() == entry.limit)) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new ArrayList<>(entry.words.subList(0, Math.min(limit, entry.words.size())));
+    }
+
+    /**
+     * Stores the suggestions for a prefix, unless the cache was invalidated since {@code version} was read.
+     *
+     * @param prefix      The prefix.
+     * @param limit       The limit the suggestions were computed with.
+     * @param words       The suggestions.
+     * @param approximate {@code true} if the list contains matches other than prefix matches.
+     * @param version     The version read before the search started.
+     */
+    synchronized void put(String prefix, int limit, List<String> words, boolean approximate, long version) {
+        if (capacity == 0 || version != this.version) {
+            return;
+        }
+        entries.put(prefix, new Entry(Collections.unmodifiableList(new ArrayList<>(words)), limit, approximate));
+    }
+
+    /**
+     * Invalidates the entries whose suggestions may change after inserting words: the prefixes for
+     * which the test reports that an inserted word starts with them, and every approximate entry.
+     *
+     * @param startsInsertedWord Tells whether any inserted word starts with a prefix, ignoring case.
+     */
+    synchronized void invalidate(Predicate<String> startsInsertedWord) {
+        version++;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> entry = it.next();
+            if (entry.getValue().approximate || startsInsertedWord.test(entry.getKey())) {
+                it.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Invalidates every entry, e.g. after a whole dictionary was mounted.
+     */
+    synchronized void invalidateAll() {
+        version++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    /**
+     * @return The number of lookups answered from the cache.
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return The number of lookups that had to search.
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return The fraction of lookups answered from the cache, between 0 and 1.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return The number of entries evicted because the cache was full.
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * @return The number of entries removed because inserted words made them outdated.
+     */
+    public synchronized long getInvalidationCount() {
+        return invalidations;
+    }
+
+    /**
+     * @return The number of cached prefixes.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The maximum number of cached prefixes.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("SuggestionCache[%d/%d entries, hit rate %.1f%%, %d evictions, %d invalidations]",
+                entries.size(), capacity, getHitRate() * 100, evictions, invalidations);
+    }
+}
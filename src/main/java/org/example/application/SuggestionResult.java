@@ -0,0 +1,66 @@
+package org.example.application;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The suggestions found for a prefix within a time budget.
+ * <p>
+ * A query with a budget stops when the budget is spent and returns the best words found up to that
+ * point, marked as partial, so they can be shown at once. The complete suggestions follow in a
+ * second result marked as a refinement, which replaces the partial one.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     autoComplete.getSuggestions("s", 20, Duration.ofMillis(5), result -&gt; {
+ *         popup.showSuggestions(textPane, result.getWords(), !result.isRefinement());
+ *     });
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public final class SuggestionResult {
+    private final List<String> words;
+    private final boolean partial;
+    private final boolean refinement;
+
+    /**
+     * Creates a result.
+     *
+     * @param words      The suggestions, best ranked first.
+     * @param partial    {@code true} if the budget ran out before every suggestion was found.
+     * @param refinement {@code true} if the result replaces an earlier partial result for the same query.
+     */
+    public SuggestionResult(List<String> words, boolean partial, boolean refinement) {
+        this.words = Collections.unmodifiableList(words);
+        this.partial = partial;
+        this.refinement = refinement;
+    }
+
+    /**
+     * @return The suggestions, best ranked first.
+     */
+    public List<String> getWords() {
+        return words;
+    }
+
+    /**
+     * @return {@code true} if the budget ran out before every suggestion was found; a refinement follows.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * @return {@code true} if the result replaces an earlier partial result for the same query.
+     */
+    public boolean isRefinement() {
+        return refinement;
+    }
+
+    @Override
+    public String toString() {
+        return (partial ? "partial " : "") + words;
+    }
+}
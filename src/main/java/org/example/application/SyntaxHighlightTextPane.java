@@ -1,115 +1,539 @@
 package org.example.application;
 
 import javax.swing.*;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.text.*;
 import java.awt.*;
-import java.awt.event.KeyEvent;
-import java.awt.event.KeyListener;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
 
 /**
  * A custom `JTextPane` that provides basic syntax highlighting for Java-like code.
  * <p>
  * The class highlights:
  * - Keywords (e.g., `if`, `while`, `for`, `return`).
- * - Comments (single-line starting with `//`).
+ * - Comments (single-line starting with `//` and block comments between `/*` and `*&#47;`).
  * - Import statements (e.g., `import java.util.List;`).
  * - Access modifiers and class declarations (e.g., `public`, `private`, `class`).
+ * - String, character and text block literals, and annotations.
  * <p>
- * Syntax highlighting is triggered when the user types specific keys such as
- * `SPACE`, `ENTER`, or `TAB`. The highlighting is applied asynchronously to avoid
- * blocking the UI thread.
+ * The text is split into tokens by a {@link JavaLexer} in a single pass, and every token gets at
+ * most one style, so a keyword inside a comment or a string is not coloured as a keyword.
  * <p>
- * Note: This implementation is simplified and focuses on basic patterns for syntax highlighting.
- * It can be extended for more advanced features like multi-line comments or string literals.
+ * Highlighting is incremental. The pane keeps the tokens of every line and the state the lexer
+ * starts the line in (e.g. inside a block comment) in a {@link LineTokenCache}. An edit drops the
+ * tokens of the lines it touched, and lexing resumes at the first of them from its cached start
+ * state. When a line now ends in a different state than the start state cached for the next line,
+ * as after typing `/*`, the lines after it are lexed again too, until one ends in the cached state.
+ * Only the lines whose tokens differ from the cached ones are styled again. The cost of an edit
+ * therefore depends on the lines it changes, not on the size of the document.
+ * <p>
+ * Lexing does not run on the Event Dispatch Thread (EDT). After an edit, the text of the damaged
+ * lines is copied into an immutable snapshot tagged with the version of the document, and lexed on
+ * a background thread. The tokens are then stored in the cache on the EDT in one batch. If the
+ * document was edited in the meantime the tokens are thrown away, and the damaged lines, including
+ * those of the newer edits, are lexed again from a new snapshot. Long ranges, like a whole file
+ * after it is opened, are lexed in chunks of {@link #CHUNK_LINES} lines.
+ * <p>
+ * Lexing is cheap, but styling the document is not, so styles are applied separately from lexing,
+ * visible lines first. When the pane is shown in a {@link JViewport}, e.g. of a {@link JScrollPane},
+ * the lexed lines in view, and a few lines around them, are styled as soon as their tokens are
+ * known, and lines scrolled into view are styled from the cached tokens without lexing them again.
+ * The other lines are styled {@link #STYLE_BATCH_LINES} at a time once no edit has been made for
+ * {@link #IDLE_DELAY_MS} milliseconds, so opening or scrolling a huge file stays responsive.
+ * <p>
+ * Note: This implementation is simplified: it colours tokens by their kind only, without parsing.
  *
  * @author [Blotor Raul]
  * @version 1.0
  */
 public class SyntaxHighlightTextPane extends JTextPane {
 
+    /**
+     * The maximum number of lines lexed in one batch.
+     */
+    public static final int CHUNK_LINES = 100;
 
-    private static final Pattern KEYWORD_PATTERN = Pattern.compile("\\b(if|while|for|return|do|else)\\b");
-    private static final Pattern COMMENT_PATTERN = Pattern.compile("//[^\n]*"); // Single-line comments
-    private static final Pattern IMPORT_PATTERN = Pattern.compile("\\bimport\\s+([\\w\\.]+);\\b");
-    private static final Pattern ACCESS_MODIFIER_PATTERN = Pattern.compile("\\b(public|private|protected|final|static|class)\\b");  // Modificatori de acces și declarații de clase
+    /**
+     * The maximum number of lines outside the viewport styled in one batch while idle.
+     */
+    public static final int STYLE_BATCH_LINES = 100;
 
     /**
-     * Constructs a `SyntaxHighlightTextPane` and adds a `KeyListener` to trigger syntax highlighting
-     * when certain keys (e.g., `SPACE`, `ENTER`, `TAB`) are pressed.
+     * The time without edits, in milliseconds, after which the lines outside the viewport are styled.
+     */
+    public static final int IDLE_DELAY_MS = 300;
+
+    private static final int VIEWPORT_MARGIN_LINES = 50; // styled around the viewport, for small scrolls
+
+    private static final String[] CONTROL_KEYWORDS = {"if", "else", "for", "while", "do", "return", "switch",
+            "case", "default", "break", "continue", "try", "catch", "finally", "throw"};
+    private static final String[] ACCESS_MODIFIERS = {"public", "private", "protected", "final", "static",
+            "abstract", "class", "interface", "enum"};  // Modificatori de acces și declarații de clase
+
+    // Style numbers used in the style runs; 0 leaves the text unstyled
+    private static final byte KEYWORD_STYLE = 1;
+    private static final byte ACCESS_MODIFIER_STYLE = 2;
+    private static final byte COMMENT_STYLE = 3;
+    private static final byte IMPORT_STYLE = 4;
+    private static final byte STRING_STYLE = 5;
+    private static final byte ANNOTATION_STYLE = 6;
+
+    private static final byte[] KEYWORD_STYLES = new byte[JavaLexer.KEYWORDS.length]; // keyword index -> style
+    private static final int IMPORT_KEYWORD = JavaLexer.indexOfKeyword("import");
+
+    static {
+        for (String keyword : CONTROL_KEYWORDS) {
+            KEYWORD_STYLES[JavaLexer.indexOfKeyword(keyword)] = KEYWORD_STYLE;
+        }
+        for (String keyword : ACCESS_MODIFIERS) {
+            KEYWORD_STYLES[JavaLexer.indexOfKeyword(keyword)] = ACCESS_MODIFIER_STYLE;
+        }
+        KEYWORD_STYLES[IMPORT_KEYWORD] = IMPORT_STYLE;
+    }
+
+    private final Style[] styles = new Style[ANNOTATION_STYLE + 1]; // style number -> style
+
+    private final DocumentListener damageTracker = new DocumentListener() {
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            damage(e);
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            damage(e);
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            // Attribute changes, including our own styling, leave the text unchanged
+        }
+    };
+
+    private final ChangeListener viewportTracker = e -> styleVisibleLines(0, -1);
+
+    private final Timer idleStyler = new Timer(10, e -> styleIdleLines());
+
+    // Read and written on the EDT only
+    private LineTokenCache cache = new LineTokenCache(0);
+    private int damageStart = -1; // first damaged line not highlighted yet, -1 if none
+    private int damageEnd = -1;   // last damaged line not highlighted yet
+    private boolean highlightScheduled;
+    private boolean lexing;       // a snapshot is being lexed in the background
+    private int idleLine;         // the line from which the idle styler looks for lines to style
+    private long linesLexed;      // statistics: lines whose tokens were stored, counted each time
+    private final Segment segment = new Segment();
+
+    private volatile int version; // incremented by every edit, so outdated snapshots are recognised
+
+    /**
+     * Constructs a `SyntaxHighlightTextPane` that highlights the lines touched by each edit.
      */
     public SyntaxHighlightTextPane() {
+        styles[KEYWORD_STYLE] = createStyle("keyword", Color.BLUE, true);
+        styles[ACCESS_MODIFIER_STYLE] = createStyle("accessModifier", Color.ORANGE, true);
+        styles[COMMENT_STYLE] = createStyle("comment", Color.GRAY, false);
+        styles[IMPORT_STYLE] = createStyle("import", Color.ORANGE, true);
+        styles[STRING_STYLE] = createStyle("string", new Color(0, 140, 0), false);
+        styles[ANNOTATION_STYLE] = createStyle("annotation", new Color(150, 120, 0), false);
+        idleStyler.setInitialDelay(IDLE_DELAY_MS);
 
-        this.addKeyListener(new KeyListener() {
-            @Override
-            public void keyTyped(KeyEvent e) {
-                // Do nothing for keyTyped
+        trackDocument(getDocument());
+        addPropertyChangeListener("document", e -> {
+            if (e.getOldValue() instanceof Document) {
+                ((Document) e.getOldValue()).removeDocumentListener(damageTracker);
             }
+            trackDocument((Document) e.getNewValue());
+        });
+    }
 
-            @Override
-            public void keyPressed(KeyEvent e) {
-                // Do nothing for keyPressed
-            }
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (getParent() instanceof JViewport) {
+            ((JViewport) getParent()).addChangeListener(viewportTracker);
+        }
+    }
 
-            @Override
-            public void keyReleased(KeyEvent e) {
-                // Trigger highlighting only on SPACE, ENTER, or TAB
-                if (e.getKeyCode() == KeyEvent.VK_SPACE || e.getKeyCode() == KeyEvent.VK_ENTER || e.getKeyCode() == KeyEvent.VK_TAB) {
-                    highlightSyntax();
-                }
-            }
+    @Override
+    public void removeNotify() {
+        if (getParent() instanceof JViewport) {
+            ((JViewport) getParent()).removeChangeListener(viewportTracker);
+        }
+        idleStyler.stop();
+        super.removeNotify();
+    }
+
+    private Style createStyle(String name, Color color, boolean bold) {
+        Style style = addStyle(name, null);
+        StyleConstants.setForeground(style, color);
+        StyleConstants.setBold(style, bold);
+        return style;
+    }
+
+    /**
+     * Starts tracking the edits of a document, whose lines are all highlighted first.
+     */
+    private void trackDocument(Document document) {
+        if (document == null) {
+            return;
+        }
+        version++;
+        document.addDocumentListener(damageTracker);
+        cache = new LineTokenCache(document.getDefaultRootElement().getElementCount());
+        damageStart = -1;
+        damageLines(0, cache.size() - 1);
+    }
+
+    /**
+     * Updates the cache for the lines an edit added or removed, and marks the edited lines as damaged.
+     */
+    private void damage(DocumentEvent e) {
+        version++;
+        if (idleStyler.isRunning()) {
+            idleStyler.restart(); // wait until the typing stops
+        }
+        Element root = e.getDocument().getDefaultRootElement();
+        DocumentEvent.ElementChange change = e.getChange(root);
+        if (change == null) {
+            // The edit stayed within one line
+            int line = root.getElementIndex(e.getOffset());
+            cache.invalidate(line);
+            damageLines(line, line);
+            return;
+        }
+        int index = change.getIndex();
+        int removed = change.getChildrenRemoved().length;
+        int added = change.getChildrenAdded().length;
+        spliceLines(index, removed, added);
+        damageLines(index, index + Math.max(added, 1) - 1);
+    }
+
+    /**
+     * Replaces {@code removed} lines of the cache at {@code index} by {@code added} lines not lexed yet.
+     */
+    private void spliceLines(int index, int removed, int added) {
+        cache.splice(index, removed, added);
+
+        // Damaged lines that are still waiting to be highlighted move with the text
+        int delta = added - removed;
+        if (damageStart > index) {
+            damageStart = Math.max(index, damageStart + delta);
+        }
+        if (damageEnd >= index) {
+            damageEnd = Math.max(index, damageEnd + delta);
+        }
+    }
+
+    /**
+     * Adds lines to the damaged range, scheduling a highlight if none is pending. All the edits made
+     * before the highlight starts, e.g. by one paste or a fast typist, are highlighted together.
+     */
+    private void damageLines(int first, int last) {
+        if (damageStart < 0) {
+            damageStart = first;
+            damageEnd = last;
+        } else {
+            damageStart = Math.min(damageStart, first);
+            damageEnd = Math.max(damageEnd, last);
+        }
+        if (!highlightScheduled && !lexing) {
+            // A document cannot be restyled while it notifies its listeners
+            highlightScheduled = true;
+            SwingUtilities.invokeLater(this::startHighlight);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the damaged lines, up to {@link #CHUNK_LINES} of them, and lexes it in the
+     * background. The damage stays recorded until the result is applied.
+     */
+    private void startHighlight() {
+        highlightScheduled = false;
+        if (damageStart < 0 || lexing) {
+            return;
+        }
+        int lineCount = cache.size();
+        int first = Math.min(damageStart, lineCount - 1);
+        // Resume from the closest line whose start state is known
+        while (cache.getStartState(first) == LineTokenCache.UNKNOWN) {
+            first--;
+        }
+        int last = Math.min(lineCount - 1, first + CHUNK_LINES - 1);
+
+        Document doc = getDocument();
+        Element root = doc.getDefaultRootElement();
+        int start = root.getElement(first).getStartOffset();
+        int end = Math.min(root.getElement(last).getEndOffset(), doc.getLength());
+        int[] lineStarts = new int[last - first + 2];
+        for (int line = first; line <= last; line++) {
+            lineStarts[line - first] = root.getElement(line).getStartOffset() - start;
+        }
+        lineStarts[last - first + 1] = end - start;
+        String text;
+        try {
+            text = doc.getText(start, end - start);
+        } catch (BadLocationException ex) {
+            ex.printStackTrace();
+            return;
+        }
+
+        // The cached start states of the following lines, to know when lexing can stop
+        int[] nextStartStates = new int[last - first + 1];
+        for (int line = first; line <= last; line++) {
+            nextStartStates[line - first] = line + 1 < lineCount
+                    ? cache.getStartState(line + 1) : LineTokenCache.UNKNOWN;
+        }
+        Snapshot snapshot = new Snapshot(version, first, damageEnd, text, lineStarts,
+                cache.getStartState(first), nextStartStates);
+        lexing = true;
+        SharedExecutors.background().execute(() -> {
+            snapshot.lex(this);
+            SwingUtilities.invokeLater(() -> finishHighlight(snapshot));
         });
     }
 
     /**
-     * Applies syntax highlighting to the entire text content of the `JTextPane`.
-     * This method identifies keywords, comments, import statements, and access modifiers
-     * using regular expressions and applies the corresponding styles.
+     * Stores the tokens of a lexed snapshot in one batch, unless the document changed since the
+     * snapshot was taken, styles the visible lines among them, and goes on with the lines still
+     * damaged.
      */
-    private void highlightSyntax() {
-        StyledDocument doc = getStyledDocument();
+    private void finishHighlight(Snapshot snapshot) {
+        lexing = false;
+        if (snapshot.version == version && snapshot.linesLexed > 0) {
+            for (int i = 0; i < snapshot.linesLexed; i++) {
+                cache.set(snapshot.firstLine + i, snapshot.lineTokens[i], snapshot.endStates[i]);
+            }
+            linesLexed += snapshot.linesLexed;
 
-        // Perform highlighting asynchronously to avoid blocking the UI thread
-        SwingUtilities.invokeLater(() -> {
-            try {
-                // Reset all existing styles
-                doc.setCharacterAttributes(0, doc.getLength(), getStyle("default"), true);
+            int next = snapshot.firstLine + snapshot.linesLexed;
+            if (snapshot.stoppedEarly || next >= cache.size()) {
+                damageStart = damageEnd = -1;
+            } else {
+                // The chunk ended while lines were still damaged or their state still changing
+                damageStart = next;
+                damageEnd = Math.max(damageEnd, next);
+            }
+            styleVisibleLines(snapshot.firstLine, next - 1);
+        }
+        if (damageStart >= 0) {
+            startHighlight();
+        }
+    }
 
-                // Retrieve the entire text content
-                String text = doc.getText(0, doc.getLength());
+    /**
+     * Styles the lexed lines in the viewport, and around it, whose styles do not match their tokens,
+     * and leaves the other lines to the idle styler. Outside a viewport all the lines are visible, so
+     * the lines between {@code first} and {@code last}, e.g. the ones just lexed, are styled instead,
+     * up to {@link #STYLE_BATCH_LINES} of them.
+     */
+    private void styleVisibleLines(int first, int last) {
+        if (getParent() instanceof JViewport && isShowing()) {
+            Rectangle view = ((JViewport) getParent()).getViewRect();
+            Element root = getDocument().getDefaultRootElement();
+            first = root.getElementIndex(viewToModel2D(new Point(view.x, view.y))) - VIEWPORT_MARGIN_LINES;
+            last = root.getElementIndex(viewToModel2D(new Point(view.x, view.y + view.height)))
+                    + VIEWPORT_MARGIN_LINES;
+        } else {
+            last = Math.min(last, first + STYLE_BATCH_LINES - 1);
+        }
+        styleLines(Math.max(0, first), Math.min(cache.size() - 1, last));
+        if (!idleStyler.isRunning() && cache.nextToStyle(0) >= 0) {
+            idleStyler.start();
+        }
+    }
 
-                // Apply highlighting for different patterns
-                applyRegex(doc, text, 0, KEYWORD_PATTERN, "keyword", Color.BLUE, true);
-                applyRegex(doc, text, 0, COMMENT_PATTERN, "comment", Color.GRAY, false);
-                applyRegex(doc, text, 0, IMPORT_PATTERN, "import", Color.ORANGE, true);
-                applyRegex(doc, text, 0, ACCESS_MODIFIER_PATTERN, "accessModifier", Color.ORANGE, true);
+    /**
+     * Styles the next {@link #STYLE_BATCH_LINES} lines to style, wherever they are, or stops the idle
+     * styler when all the lexed lines are styled.
+     */
+    private void styleIdleLines() {
+        int first = cache.nextToStyle(Math.min(idleLine, cache.size()));
+        if (first < 0) {
+            first = cache.nextToStyle(0);
+        }
+        if (first < 0) {
+            idleStyler.stop();
+            return;
+        }
+        int last = Math.min(cache.size() - 1, first + STYLE_BATCH_LINES - 1);
+        styleLines(first, last);
+        idleLine = last + 1;
+    }
 
-            } catch (BadLocationException ex) {
-                ex.printStackTrace();
+    /**
+     * Styles the lines between {@code first} and {@code last} that need it from their cached tokens.
+     * The styles of each group of consecutive lines are reset at once before their tokens are styled.
+     */
+    private void styleLines(int first, int last) {
+        StyledDocument doc = getStyledDocument();
+        Element root = doc.getDefaultRootElement();
+        int line = first;
+        while (line <= last) {
+            if (!cache.needsStyling(line)) {
+                line++;
+                continue;
             }
-        });
+            int groupEnd = line;
+            while (groupEnd < last && cache.needsStyling(groupEnd + 1)) {
+                groupEnd++;
+            }
+            int start = root.getElement(line).getStartOffset();
+            int end = Math.min(root.getElement(groupEnd).getEndOffset(), doc.getLength());
+            doc.setCharacterAttributes(start, end - start, getStyle("default"), true);
+            for (; line <= groupEnd; line++) {
+                styleTokens(doc, root.getElement(line), cache.getTokens(line));
+                cache.setStyled(line);
+            }
+        }
     }
 
     /**
-     * Applies a given regex pattern to the text content and styles matching regions.
+     * Styles the tokens of a line whose styles were reset.
+     */
+    private void styleTokens(StyledDocument doc, Element line, int[] tokens) {
+        int lineStart = line.getStartOffset();
+        try {
+            doc.getText(lineStart, Math.min(line.getEndOffset(), doc.getLength()) - lineStart, segment);
+        } catch (BadLocationException ex) {
+            ex.printStackTrace();
+            return;
+        }
+        int count = LineTokenCache.tokenCount(tokens);
+        for (int t = 0; t < count; t++) {
+            int style = LineTokenCache.tokenStyle(tokens, t);
+            if (style == 0) {
+                continue;
+            }
+            int start = LineTokenCache.tokenStart(tokens, t);
+            int end = start + LineTokenCache.tokenLength(tokens, t);
+            // Tokens of the same style with at most a space between them are styled together,
+            // e.g. "java.util.List" or "public static final"
+            while (t + 1 < count && LineTokenCache.tokenStyle(tokens, t + 1) == style) {
+                int next = LineTokenCache.tokenStart(tokens, t + 1);
+                if (next != end && (next != end + 1 || segment.charAt(end) != ' ')) {
+                    break;
+                }
+                t++;
+                end = next + LineTokenCache.tokenLength(tokens, t);
+            }
+            doc.setCharacterAttributes(lineStart + start, end - start, styles[style], false);
+        }
+    }
+
+    /**
+     * Returns the number of lines lexed so far, a line lexed again after an edit being counted again.
+     * Must be called on the Event Dispatch Thread.
      *
-     * @param doc       The `StyledDocument` of the `JTextPane`.
-     * @param text      The full text content of the document.
-     * @param offset    The starting offset for applying styles.
-     * @param pattern   The `Pattern` to match in the text.
-     * @param styleName The name of the style to apply.
-     * @param color     The color to use for the matched text.
-     * @param bold      Whether the matched text should be bold.
-     */
-    private void applyRegex(StyledDocument doc, String text, int offset, Pattern pattern, String styleName, Color color, boolean bold) {
-        Style style = addStyle(styleName, null);
-        StyleConstants.setForeground(style, color);
-        StyleConstants.setBold(style, bold);
+     * @return The number of lexed lines.
+     */
+    long getLinesLexed() {
+        return linesLexed;
+    }
+
+    /**
+     * Checks whether lines are still waiting to be lexed or styled. Must be called on the Event Dispatch Thread.
+     *
+     * @return {@code true} until the styles of the whole document match its text.
+     */
+    boolean isHighlightPending() {
+        return damageStart >= 0 || lexing || highlightScheduled || cache.nextToStyle(0) >= 0;
+    }
+
+    /**
+     * An immutable copy of the text of some lines, and the tokens lexed from it.
+     * The input is set on the EDT, the output is written by the background thread and read on the EDT.
+     */
+    private static final class Snapshot {
+        final int version;
+        final int firstLine;
+        final int lastDamagedLine;
+        final String text;
+        final int[] lineStarts;       // offsets of the lines in text, plus the length of text
+        final int startState;         // the cached start state of the first line
+        final int[] nextStartStates;  // the cached start state of the line after each line
+
+        int linesLexed;
+        boolean stoppedEarly;         // the damaged lines are done and the state did not change
+        final int[][] lineTokens;     // packed as in LineTokenCache
+        final int[] endStates;
+        private int[] buffer = new int[64];
+
+        Snapshot(int version, int firstLine, int lastDamagedLine, String text, int[] lineStarts,
+                 int startState, int[] nextStartStates) {
+            this.version = version;
+            this.firstLine = firstLine;
+            this.lastDamagedLine = lastDamagedLine;
+            this.text = text;
+            this.lineStarts = lineStarts;
+            this.startState = startState;
+            this.nextStartStates = nextStartStates;
+            this.lineTokens = new int[nextStartStates.length][];
+            this.endStates = new int[nextStartStates.length];
+        }
 
-        Matcher matcher = pattern.matcher(text);
-        while (matcher.find()) {
-            doc.setCharacterAttributes(offset + matcher.start(), matcher.end() - matcher.start(), style, false);
+        /**
+         * Lexes the lines, stopping after the damaged lines once a line ends in the start state cached
+         * for the next one, or as soon as the pane's document has changed.
+         */
+        void lex(SyntaxHighlightTextPane pane) {
+            JavaLexer lexer = new JavaLexer();
+            int state = startState;
+            for (int i = 0; i < lineTokens.length; i++) {
+                if (pane.version != version) {
+                    return; // outdated; the result would be thrown away
+                }
+                state = lexLine(lexer, i, state);
+                endStates[i] = state;
+                linesLexed = i + 1;
+                if (firstLine + i >= lastDamagedLine && state == nextStartStates[i]) {
+                    stoppedEarly = true;
+                    return;
+                }
+            }
+        }
+
+        private int lexLine(JavaLexer lexer, int line, int state) {
+            int start = lineStarts[line];
+            int count = 0;
+            boolean inImport = false; // between "import" and ";"
+            lexer.reset(text, start, lineStarts[line + 1], state);
+            while (lexer.next()) {
+                int style = 0;
+                switch (lexer.getTokenType()) {
+                    case JavaLexer.KEYWORD:
+                        style = KEYWORD_STYLES[lexer.getKeywordIndex()];
+                        inImport |= lexer.getKeywordIndex() == IMPORT_KEYWORD;
+                        break;
+                    case JavaLexer.COMMENT:
+                        style = COMMENT_STYLE;
+                        break;
+                    case JavaLexer.STRING:
+                    case JavaLexer.CHARACTER:
+                        style = STRING_STYLE;
+                        break;
+                    case JavaLexer.ANNOTATION:
+                        style = ANNOTATION_STYLE;
+                        break;
+                    default:
+                        // The imported name, e.g. java.util.List or java.util.*
+                        if (text.charAt(lexer.getTokenStart()) == ';') {
+                            inImport = false;
+                        } else if (inImport) {
+                            style = IMPORT_STYLE;
+                        }
+                }
+                if (count + 2 > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                buffer[count++] = lexer.getTokenStart() - start;
+                buffer[count++] = LineTokenCache.pack(lexer.getTokenEnd() - lexer.getTokenStart(),
+                        lexer.getTokenType(), style);
+            }
+            lineTokens[line] = count == 0 ? LineTokenCache.NO_TOKENS : Arrays.copyOf(buffer, count);
+            return lexer.getState();
         }
     }
 }
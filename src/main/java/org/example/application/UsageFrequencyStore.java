@@ -0,0 +1,179 @@
+package org.example.application;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Counts how often each completion was accepted and keeps the counts across sessions.
+ * <p>
+ * The counts are held in memory and written to a small binary file at a fixed interval, but only
+ * when something changed since the last write. The file is written next to the final one and then
+ * moved over it, so a crash while saving never leaves a truncated file behind.
+ * <p>
+ * File layout (big-endian): int magic, int format version, int number of words,
+ * then per word its UTF name and int count.
+ * <p>
+ * Example usage:
+ * <pre>
+ *     UsageFrequencyStore store = new UsageFrequencyStore(Paths.get("completion_usage.bin"));
+ *     store.load();
+ *     store.startPeriodicFlush(1);
+ *     int count = store.increment("println");
+ *
+ *     // Write the last changes when no longer needed
+ *     store.stop();
+ * </pre>
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+public class UsageFrequencyStore {
+
+    /**
+     * The default location of the usage file, next to the autosave file in the working directory.
+     */
+    public static final Path DEFAULT_FILE = Paths.get("completion_usage.bin");
+
+    private static final int MAGIC = 0x55534745; // "USGE"
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path file;
+    private final Map<String, int[]> counts = new HashMap<>(); // word -> {acceptance count}
+    private boolean dirty;
+    private ScheduledFuture<?> periodicFlush;
+
+    /**
+     * Creates a store backed by the given file. Nothing is read until {@link #load()} is called.
+     *
+     * @param file The usage file.
+     */
+    public UsageFrequencyStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the counts from the file, if it exists, adding them to the counts already in memory.
+     * A file that cannot be read or is not a usage file is reported like any other I/O error and ignored.
+     */
+    public synchronized void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a usage file: " + file);
+            }
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                String word = in.readUTF();
+                counts.computeIfAbsent(word, k -> new int[1])[0] += in.readInt();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Counts one more acceptance of a word.
+     *
+     * @param word The accepted word.
+     * @return The new count of the word.
+     */
+    public synchronized int increment(String word) {
+        dirty = true;
+        return ++counts.computeIfAbsent(word, k -> new int[1])[0];
+    }
+
+    /**
+     * Returns how often a word was accepted.
+     *
+     * @param word The word.
+     * @return The count, 0 if it was never accepted.
+     */
+    public synchronized int getCount(String word) {
+        int[] count = counts.get(word);
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Passes every word and its count to the consumer.
+     *
+     * @param consumer The consumer receiving the words and counts.
+     */
+    public synchronized void forEach(ObjIntConsumer<String> consumer) {
+        for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+            consumer.accept(entry.getKey(), entry.getValue()[0]);
+        }
+    }
+
+    /**
+     * Returns the number of words that were accepted at least once.
+     *
+     * @return The number of counted words.
+     */
+    public synchronized int size() {
+        return counts.size();
+    }
+
+    /**
+     * Writes the counts to the file if they changed since the last write.
+     */
+    public synchronized void flush() {
+        if (!dirty) {
+            return;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(counts.size());
+                for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue()[0]);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Starts writing the counts to the file at a fixed interval.
+     * If the periodic flush is already running, this method does nothing.
+     *
+     * @param intervalMinutes The interval between writes, in minutes.
+     */
+    public synchronized void startPeriodicFlush(int intervalMinutes) {
+        if (periodicFlush != null) {
+            return;
+        }
+        // On the shared daemon threads, which never keep the editor alive after its window is closed
+        periodicFlush = SharedExecutors.scheduleAtFixedRate(this::flush, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops the periodic flush and writes the last changes.
+     */
+    public synchronized void stop() {
+        if (periodicFlush != null) {
+            periodicFlush.cancel(false);
+            periodicFlush = null;
+        }
+        flush();
+    }
+}
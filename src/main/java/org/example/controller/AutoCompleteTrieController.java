@@ -1,16 +1,46 @@
 package org.example.controller;
 
 import org.example.application.AutoCompleteTrie;
+import org.example.application.AutoSaveService;
+import org.example.application.BigramModel;
+import org.example.application.ClassMemberIndex;
+import org.example.application.DocumentIdentifierIndex;
+import org.example.application.JdkTypeIndexer;
+import org.example.application.SharedIdentifierIndex;
+import org.example.application.SuggestionResult;
+import org.example.application.UsageFrequencyStore;
 
+import javax.swing.text.Document;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * A controller class that acts as an intermediary for managing the `AutoCompleteTrie` component.
  * <p>
  * This controller provides methods to:
  * - Load a list of keywords into the trie.
- * - Fetch suggestions asynchronously based on a given prefix.
+ * - Mount a memory-mapped dictionary of all public JDK type names in the background.
+ * - Index the identifiers of the edited document as it changes, and suggest them before the
+ *   trie's suggestions. The identifiers of all open documents go into one process-wide index.
+ * - Fetch the top-ranked suggestions asynchronously based on a given prefix, followed by
+ *   camel-hump matches when the prefix has several humps (e.g. "sB" for "StringBuilder").
+ *   Only the most recent request delivers its result; older ones are dropped. A search that takes
+ *   longer than {@link #SUGGESTION_BUDGET} first delivers the best suggestions found so far and
+ *   then the complete ones.
+ * - Learn from accepted suggestions, so the ones chosen most often are ranked first.
+ * - Predict the next token from the one before the caret (e.g. "static" after "public"), using
+ *   bigram counts from the edited document and the autosave file of the previous session.
+ * - Complete the fields and methods of JDK types after a dot (e.g. "System.out." or "list."),
+ *   reading the members of each type from the JDK's class files the first time it is completed.
  * - Clean up resources when the component is no longer needed.
  * <p>
  * Note: Ensure to call {@link #shutdown()} to release resources when the controller is no longer needed.
@@ -19,10 +49,39 @@ import java.util.function.Consumer;
  * @version 1.0
  */
 public class AutoCompleteTrieController {
+    /**
+     * JDK types rank below keywords loaded with the default score.
+     */
+    private static final int JDK_TYPE_SCORE = -1;
+
+    /**
+     * How often the usage counts are written to disk.
+     */
+    private static final int USAGE_FLUSH_MINUTES = 1;
+
+    /**
+     * How long a search may take before the suggestions found so far are shown.
+     */
+    public static final Duration SUGGESTION_BUDGET = Duration.ofMillis(5);
+
+    /**
+     * An expression followed by a dot and the part of a member name typed so far, at the end of a line,
+     * e.g. "System.out.pri" or "sb.append(x).". Calls may have arguments, but not nested parentheses.
+     */
+    private static final Pattern MEMBER_ACCESS = Pattern.compile(
+            "(?<![\\w$.])([A-Za-z_$][\\w$]*(?:\\([^()]*\\))?(?:\\s*\\.\\s*[A-Za-z_$][\\w$]*(?:\\([^()]*\\))?)*)"
+                    + "\\s*\\.\\s*([A-Za-z_$][\\w$]*)?$");
+
     private final AutoCompleteTrie autoCompleteTrie;
+    private final DocumentIdentifierIndex documentIndex;
+    private final BigramModel bigramModel;
+    private final ClassMemberIndex memberIndex;
 
     public AutoCompleteTrieController() {
         this.autoCompleteTrie = new AutoCompleteTrie();
+        this.bigramModel = new BigramModel();
+        this.documentIndex = new DocumentIdentifierIndex(SharedIdentifierIndex.global(), bigramModel);
+        this.memberIndex = new ClassMemberIndex(ClassMemberIndex.DEFAULT_CAPACITY);
     }
 
     /**
@@ -34,6 +93,58 @@ public class AutoCompleteTrieController {
         autoCompleteTrie.loadKeywords(keywords);
     }
 
+    /**
+     * Makes the simple names of all public JDK types (e.g. "ArrayList", "StringBuilder") available
+     * for completion. The names are kept in a memory-mapped dictionary file that is mounted next to
+     * the trie; the file is built from the running JDK on first use. The same types are what member
+     * completion after a dot starts from. Either way this happens on a background thread.
+     */
+    public void loadJdkTypes() {
+        JdkTypeIndexer indexer = new JdkTypeIndexer(JdkTypeIndexer.DEFAULT_CACHE_FILE);
+        indexer.loadDictionaryInBackground(
+                JdkTypeIndexer.DEFAULT_DICTIONARY_FILE, JDK_TYPE_SCORE, autoCompleteTrie::mountDictionary);
+        indexer.loadTypesInBackground(memberIndex::setTypes);
+    }
+
+    /**
+     * Starts indexing the identifiers of the given document, so names used in the file being edited
+     * are suggested too. Only the lines touched by each edit are scanned again.
+     *
+     * @param document The document being edited.
+     */
+    public void attachDocument(Document document) {
+        documentIndex.attach(document);
+    }
+
+    /**
+     * Learns which tokens follow each other from the file saved by the autosave of the previous session.
+     * The file is read on a background thread.
+     */
+    public void loadHistory() {
+        bigramModel.trainInBackground(AutoSaveService.OUTPUT_FILE);
+    }
+
+    /**
+     * Starts ranking suggestions by how often they were accepted, in this session and earlier ones.
+     * The counts are read from {@link UsageFrequencyStore#DEFAULT_FILE} and written back every minute
+     * and on {@link #shutdown()}.
+     */
+    public void enableUsageLearning() {
+        UsageFrequencyStore store = new UsageFrequencyStore(UsageFrequencyStore.DEFAULT_FILE);
+        store.load();
+        store.startPeriodicFlush(USAGE_FLUSH_MINUTES);
+        autoCompleteTrie.enableUsageLearning(store);
+    }
+
+    /**
+     * Records that the user accepted a suggestion, so it ranks higher from now on.
+     *
+     * @param suggestion The accepted suggestion.
+     */
+    public void recordAcceptance(String suggestion) {
+        autoCompleteTrie.recordAcceptance(suggestion);
+    }
+
     /**
      * Fetches autocomplete suggestions for a given prefix.
      * The result is returned asynchronously on the Event Dispatch Thread (EDT) via the provided callback.
@@ -42,7 +153,189 @@ public class AutoCompleteTrieController {
      * @param callback A callback to handle the list of suggestions returned.
      */
     public void getSuggestions(String prefix, Consumer<List<String>> callback) {
-        autoCompleteTrie.getSuggestions(prefix, callback);
+        getSuggestions(prefix, AutoCompleteTrie.DEFAULT_SUGGESTION_LIMIT, callback);
+    }
+
+    /**
+     * Fetches at most {@code limit} autocomplete suggestions for a given prefix, best ranked first.
+     * Previously accepted suggestions come first, then identifiers of the attached document (most used
+     * first), followed by the trie's other suggestions.
+     * The result is returned asynchronously on the Event Dispatch Thread (EDT) via the provided callback.
+     *
+     * @param prefix   The prefix to search for in the trie.
+     * @param limit    The maximum number of suggestions to return.
+     * @param callback A callback to handle the list of suggestions returned.
+     */
+    public void getSuggestions(String prefix, int limit, Consumer<List<String>> callback) {
+        getSuggestions(null, prefix, limit, result -> callback.accept(result.getWords()));
+    }
+
+    /**
+     * Fetches suggestions for the token being typed after {@code previous}, predicted tokens first.
+     * The result is returned asynchronously on the Event Dispatch Thread (EDT) via the provided callback,
+     * possibly twice: first partial, if the search ran out of {@link #SUGGESTION_BUDGET}, then refined.
+     *
+     * @param previous The token before the one being typed, or {@code null} if there is none.
+     * @param prefix   The part of the token typed so far, possibly empty.
+     * @param callback A callback to handle the suggestions returned.
+     */
+    public void getSuggestions(String previous, String prefix, Consumer<SuggestionResult> callback) {
+        getSuggestions(previous, prefix, AutoCompleteTrie.DEFAULT_SUGGESTION_LIMIT, callback);
+    }
+
+    /**
+     * Fetches at most {@code limit} suggestions for the token being typed after {@code previous}.
+     * The tokens most often seen after {@code previous} come first, then the suggestions of
+     * {@link #getSuggestions(String, int, Consumer)}. When nothing of the token has been typed yet
+     * (an empty prefix), only the predicted tokens are returned.
+     * The result is returned asynchronously on the Event Dispatch Thread (EDT) via the provided callback,
+     * possibly twice: first partial, if the search ran out of {@link #SUGGESTION_BUDGET}, then refined.
+     *
+     * @param previous The token before the one being typed, or {@code null} if there is none.
+     * @param prefix   The part of the token typed so far, possibly empty.
+     * @param limit    The maximum number of suggestions to return.
+     * @param callback A callback to handle the suggestions returned.
+     */
+    public void getSuggestions(String previous, String prefix, int limit, Consumer<SuggestionResult> callback) {
+        // An empty prefix would match every word; the request still goes through the trie
+        // with no room for words, so it supersedes the older requests like any other
+        int trieLimit = prefix.isEmpty() ? 0 : limit;
+        // The other sources are searched and merged on the query thread, within the budget
+        autoCompleteTrie.getSuggestions(prefix, trieLimit, SUGGESTION_BUDGET, () -> {
+            List<String> predicted = previous != null
+                    ? bigramModel.predict(previous, prefix, limit) : Collections.emptyList();
+            List<String> fromDocument = prefix.isEmpty()
+                    ? Collections.emptyList() : documentIndex.search(prefix, limit);
+            return result -> {
+                List<String> found = result.getWords();
+                // Predicted next tokens first, then words the user picked before, then names from the
+                // document, which are what the user is most likely typing, then everything else
+                List<String> merged = new ArrayList<>(limit);
+                addMissing(merged, predicted, limit);
+                if (prefix.isEmpty()) {
+                    return new SuggestionResult(merged, false, false);
+                }
+                for (String word : found) {
+                    if (merged.size() < limit && autoCompleteTrie.getUsageCount(word) > 0 && !merged.contains(word)) {
+                        merged.add(word);
+                    }
+                }
+                addMissing(merged, fromDocument, limit);
+                addMissing(merged, found, limit);
+                return new SuggestionResult(merged, result.isPartial(), result.isRefinement());
+            };
+        }, callback);
+    }
+
+    /**
+     * Fetches the members that can follow the expression before the caret when the caret is after a dot,
+     * e.g. "println" for "System.out.pri" or "add" for "list." when {@code list} is declared as a
+     * {@code List} earlier in the text. Only members of JDK types are known.
+     * Like the other requests, this supersedes the earlier ones, and the result is returned
+     * asynchronously on the Event Dispatch Thread (EDT) via the provided callback.
+     *
+     * @param text     The text before the caret.
+     * @param callback A callback to handle the member names returned, members of the type itself first.
+     * @return {@code true} if the caret is after a dot and a request was made, {@code false} otherwise.
+     */
+    public boolean getMemberSuggestions(String text, Consumer<List<String>> callback) {
+        Matcher matcher = MEMBER_ACCESS.matcher(text.substring(text.lastIndexOf('\n') + 1));
+        if (!matcher.find()) {
+            return false;
+        }
+        String qualifier = matcher.group(1);
+        String prefix = matcher.group(2) == null ? "" : matcher.group(2);
+        autoCompleteTrie.submitQuery(() -> memberIndex.suggest(qualifier, prefix, text,
+                AutoCompleteTrie.DEFAULT_SUGGESTION_LIMIT), callback);
+        return true;
+    }
+
+    /**
+     * Returns the suggestions that follow the ones already shown, to be pulled lazily a page at a time.
+     * Identifiers of the attached document come first, then the trie's suggestions. Nothing is searched
+     * here: the document index is searched when the iterator is first used, and the trie only once the
+     * document's identifiers run out, so the caller can use the iterator off the Event Dispatch Thread.
+     *
+     * @param prefix The prefix to search for.
+     * @param shown  The suggestions already shown, which are skipped.
+     * @return An iterator over the remaining suggestions, best ranked first.
+     */
+    public Iterator<String> getMoreSuggestions(String prefix, List<String> shown) {
+        if (prefix.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        return new MoreSuggestions(prefix, new HashSet<>(shown));
+    }
+
+    /**
+     * The identifiers of the document and then the trie's suggestions, each source searched only
+     * when the previous one runs out. Words already returned or shown are skipped.
+     */
+    private final class MoreSuggestions implements Iterator<String> {
+        private final String prefix;
+        private final Set<String> seen;
+        private Iterator<String> source; // null until the first word is asked for
+        private boolean fromTrie;
+        private String next;
+
+        MoreSuggestions(String prefix, Set<String> seen) {
+            this.prefix = prefix;
+            this.seen = seen;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (source == null) {
+                    source = documentIndex.search(prefix, Integer.MAX_VALUE).iterator();
+                } else if (source.hasNext()) {
+                    String candidate = source.next();
+                    if (seen.add(candidate)) {
+                        next = candidate;
+                    }
+                } else if (!fromTrie) {
+                    source = autoCompleteTrie.iterateSuggestions(prefix);
+                    fromTrie = true;
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String word = next;
+            next = null;
+            return word;
+        }
+    }
+
+    /**
+     * Appends the words not yet present in the list, until the list reaches the limit.
+     */
+    private static void addMissing(List<String> merged, List<String> words, int limit) {
+        for (String word : words) {
+            if (merged.size() == limit) {
+                break;
+            }
+            if (!merged.contains(word)) {
+                merged.add(word);
+            }
+        }
+    }
+
+    /**
+     * Returns how many suggestion requests were replaced by a newer prefix before their
+     * results could be shown.
+     *
+     * @return The number of dropped suggestion requests.
+     */
+    public long getDroppedRequestCount() {
+        return autoCompleteTrie.getDroppedRequestCount();
     }
 
     /**
@@ -6,7 +6,10 @@ import javax.swing.text.BadLocationException;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Interface for notifying when a user selects a suggestion.
@@ -27,6 +30,9 @@ interface AutoCompleteSelectionListener {
  * - Displays a list of suggestions next to the caret in a {@link JTextPane}.
  * - Does not take focus away from the text pane.
  * - Notifies a listener when a suggestion is selected by the user.
+ * - Optionally pulls further suggestions one page at a time from an iterator, only when the user
+ *   scrolls (or moves the selection) to the end of the list. The page is fetched on a background
+ *   thread, as it may search, and appended when it is ready.
  * <p>
  * Example usage:
  * <pre>
@@ -45,10 +51,18 @@ interface AutoCompleteSelectionListener {
  * @version 1.0
  */
 public class AutoCompletePopup {
+    /**
+     * The number of suggestions fetched each time the user reaches the end of the list.
+     */
+    private static final int PAGE_SIZE = 20;
+
     private final JPopupMenu popupMenu;
+    private final DefaultListModel<String> suggestionModel;
     private final JList<String> suggestionList;
     private final JScrollPane scrollPane;
-    private List<String> currentSuggestions;
+    private Iterator<String> moreSuggestions;
+    private SwingWorker<List<String>, Void> pageLoader; // the page being fetched, or null
+    private boolean moveDownWhenLoaded;
     private final AutoCompleteSelectionListener selectionListener;
 
     /**
@@ -62,7 +76,8 @@ public class AutoCompletePopup {
         popupMenu = new JPopupMenu();
         popupMenu.setFocusable(false);
 
-        suggestionList = new JList<>();
+        suggestionModel = new DefaultListModel<>();
+        suggestionList = new JList<>(suggestionModel);
         suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         suggestionList.setFocusable(false);
 
@@ -70,6 +85,13 @@ public class AutoCompletePopup {
         scrollPane.setPreferredSize(new Dimension(200, 100));
         popupMenu.add(scrollPane);
 
+        // Reaching the end of the list => fetch the next page
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            if (suggestionList.getLastVisibleIndex() >= suggestionModel.getSize() - 1) {
+                loadNextPage();
+            }
+        });
+
         // Dublu-click => select item and notify listener
         suggestionList.addMouseListener(new MouseAdapter() {
             @Override
@@ -78,12 +100,9 @@ public class AutoCompletePopup {
                     int index = suggestionList.locationToIndex(e.getPoint());
                     if (index >= 0) {
                         suggestionList.setSelectedIndex(index);
-                        String selected = suggestionList.getSelectedValue();
 
                         // notify the class that we use
-                        selectionListener.onSuggestionSelected(selected);
-
-                        hidePopup();
+                        acceptSelection();
                     }
                 }
             }
@@ -95,19 +114,44 @@ public class AutoCompletePopup {
      *
      * @param textPane       The text pane where the popup will be displayed.
      * @param suggestions    A list of suggestions to display.
-     * @param resetSelection Whether to reset the selection to the first item.
+     * @param resetSelection Whether to reset the selection to the first item; otherwise the selected
+     *                       suggestion stays selected if it is still in the list.
      */
     public void showSuggestions(JTextPane textPane, List<String> suggestions, boolean resetSelection) {
-        this.currentSuggestions = suggestions;
+        showSuggestions(textPane, suggestions, null, resetSelection);
+    }
+
+    /**
+     * Displays the popup near the caret with a first page of suggestions. Further suggestions are taken
+     * from {@code moreSuggestions} a page at a time, only when the user scrolls to the end of the list.
+     * The iterator is used on a background thread, one page at a time, and never after it was replaced.
+     *
+     * @param textPane        The text pane where the popup will be displayed.
+     * @param suggestions     The first page of suggestions.
+     * @param moreSuggestions The suggestions following the first page, or {@code null} if there are none.
+     * @param resetSelection  Whether to reset the selection to the first item; otherwise the selected
+     *                        suggestion stays selected if it is still in the list.
+     */
+    public void showSuggestions(JTextPane textPane, List<String> suggestions, Iterator<String> moreSuggestions,
+                                boolean resetSelection) {
+        this.moreSuggestions = moreSuggestions;
+        pageLoader = null; // a page still being fetched belongs to the previous suggestions
+        moveDownWhenLoaded = false;
         if (suggestions == null || suggestions.isEmpty()) {
             popupMenu.setVisible(false);
             return;
         }
 
-        suggestionList.setListData(suggestions.toArray(new String[0]));
+        String selected = suggestionList.getSelectedValue();
+        suggestionModel.clear();
+        for (String suggestion : suggestions) {
+            suggestionModel.addElement(suggestion);
+        }
 
-        if (resetSelection) {
+        if (resetSelection || selected == null || !suggestionModel.contains(selected)) {
             suggestionList.setSelectedIndex(0);
+        } else {
+            suggestionList.setSelectedValue(selected, true);
         }
 
         try {
@@ -121,6 +165,55 @@ public class AutoCompletePopup {
         }
     }
 
+    /**
+     * Fetches the next page of suggestions on a background thread and appends it, if there are more.
+     * Does nothing while a page is being fetched.
+     */
+    private void loadNextPage() {
+        Iterator<String> more = moreSuggestions;
+        if (more == null || pageLoader != null) {
+            return;
+        }
+        pageLoader = new SwingWorker<>() {
+            @Override
+            protected List<String> doInBackground() {
+                List<String> page = new ArrayList<>(PAGE_SIZE);
+                while (page.size() < PAGE_SIZE && more.hasNext()) {
+                    page.add(more.next());
+                }
+                return page;
+            }
+
+            @Override
+            protected void done() {
+                if (pageLoader == this) {
+                    pageLoader = null;
+                }
+                if (more != moreSuggestions) {
+                    return; // other suggestions are shown by now
+                }
+                List<String> page;
+                try {
+                    page = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    page = List.of();
+                }
+                if (page.size() < PAGE_SIZE) {
+                    moreSuggestions = null; // that was the last page
+                }
+                for (String suggestion : page) {
+                    suggestionModel.addElement(suggestion);
+                }
+                if (moveDownWhenLoaded) {
+                    moveDownWhenLoaded = false;
+                    moveSelectionDown();
+                }
+            }
+        };
+        pageLoader.execute();
+    }
+
     /**
      * Checks if the popup is currently visible.
      *
@@ -152,12 +245,34 @@ public class AutoCompletePopup {
         return suggestionList.getSelectedValue();
     }
 
+    /**
+     * Accepts the currently selected suggestion: notifies the selection listener and hides the popup,
+     * exactly as a double-click on the item does.
+     *
+     * @return `true` if a suggestion was selected and accepted, `false` otherwise.
+     */
+    public boolean acceptSelection() {
+        String selected = suggestionList.getSelectedValue();
+        if (selected == null) {
+            return false;
+        }
+        selectionListener.onSuggestionSelected(selected);
+        hidePopup();
+        return true;
+    }
+
     /**
      * Moves the selection down to the next item in the list.
      */
     public void moveSelectionDown() {
         int current = suggestionList.getSelectedIndex();
-        int size = suggestionList.getModel().getSize();
+        if (current == suggestionModel.getSize() - 1 && moreSuggestions != null) {
+            // The selection moves once the next page has arrived
+            moveDownWhenLoaded = true;
+            loadNextPage();
+            return;
+        }
+        int size = suggestionModel.getSize();
         if (current < size - 1) {
             suggestionList.setSelectedIndex(current + 1);
             suggestionList.ensureIndexIsVisible(current + 1);
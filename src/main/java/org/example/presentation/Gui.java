@@ -21,7 +21,8 @@ import java.util.List;
  * The main GUI class that serves as a rich text editor with various features:
  * <ul>
  *     <li>Line numbering and current line highlighting.</li>
- *     <li>Autocomplete functionality using a popup and navigation via arrow keys/Enter/Mouse.</li>
+ *     <li>Autocomplete functionality using a popup and navigation via arrow keys/Enter/Mouse,
+ *     including the members of JDK types after a dot.</li>
  *     <li>"Run" button to execute code using Judge0 API.</li>
  *     <li>Autosave functionality every 2 minutes.</li>
  *     <li>Toggle between Light and Dark themes with proper text and background updates.</li>
@@ -62,6 +63,7 @@ public class Gui {
     // Autocomplete popup
     private final AutoCompletePopup autoCompletePopup;
     private String lastPrefix = "";
+    private boolean completingMember; // the shown suggestions are members after a dot
 
     // Theme flag
     private boolean isDarkMode = false; // false = Light Mode, true = Dark Mode
@@ -82,6 +84,13 @@ public class Gui {
 
         frame = new JFrame("Editor + Autocomplete + Autosave Demo");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                // Writes the completion usage counts before the application exits
+                autoCompleteController.shutdown();
+            }
+        });
 
         //Initialize text pane with syntax highlighting and custom UI
         textPane = new SyntaxHighlightTextPane();
@@ -91,7 +100,12 @@ public class Gui {
 
         //Initialize autocomplete popup
         autoCompletePopup = new AutoCompletePopup(suggestion -> {
+            if (completingMember) {
+                replaceMemberInTextPane(textPane, suggestion);
+                return;
+            }
             replaceLastWordInTextPane(textPane, suggestion);
+            autoCompleteController.recordAcceptance(suggestion);
         });
 
         //Start autosave functionality
@@ -106,6 +120,10 @@ public class Gui {
                 "strictfp", "switch", "synchronized", "throw", "throws"
         );
         autoCompleteController.loadKeywords(javaKeywords);
+        autoCompleteController.loadJdkTypes();
+        autoCompleteController.attachDocument(textPane.getDocument());
+        autoCompleteController.enableUsageLearning();
+        autoCompleteController.loadHistory();
 
         //Add line numbering
         lineNumbers = new JTextArea("1");
@@ -200,10 +218,7 @@ public class Gui {
                             e.consume();
                             break;
                         case KeyEvent.VK_ENTER:
-                            if (autoCompletePopup.hasSelection()) {
-                                String selected = autoCompletePopup.getSelectedValue();
-                                replaceLastWordInTextPane(textPane, selected);
-                                autoCompletePopup.hidePopup();
+                            if (autoCompletePopup.acceptSelection()) {
                                 e.consume();
                             }
                             break;
@@ -223,12 +238,23 @@ public class Gui {
                 // Extract the last word (prefix) from the text in the text pane
                 String text = textPane.getText();
                 String prefix = getLastWord(text);
+                String previous = getPreviousWord(text, prefix);
 
                 // If the prefix has changed, fetch and update autocomplete suggestions
                 if (!prefix.equals(lastPrefix)) {
                     lastPrefix = prefix;
-                    autoCompleteController.getSuggestions(prefix, sugestii -> {
-                        autoCompletePopup.showSuggestions(textPane, sugestii, true);
+                    // After a dot, offer the members of the expression's type instead of words; only the
+                    // text before the caret is searched for the declaration of the variable
+                    completingMember = autoCompleteController.getMemberSuggestions(textBeforeCaret(textPane), members ->
+                            autoCompletePopup.showSuggestions(textPane, members, true));
+                    if (completingMember) {
+                        return;
+                    }
+                    autoCompleteController.getSuggestions(previous, prefix, result -> {
+                        // A refinement replaces the first suggestions, keeping what the user selected meanwhile
+                        List<String> sugestii = result.getWords();
+                        autoCompletePopup.showSuggestions(textPane, sugestii,
+                                autoCompleteController.getMoreSuggestions(prefix, sugestii), !result.isRefinement());
                     });
                 }
             }
@@ -282,6 +308,10 @@ public class Gui {
      * @return The last word or prefix.
      */
     private String getLastWord(String text) {
+        // After a space nothing of the next word has been typed yet
+        if (text.isEmpty() || Character.isWhitespace(text.charAt(text.length() - 1))) {
+            return "";
+        }
         String[] tokens = text.split("\\s+");
         if (tokens.length == 0) {
             return "";
@@ -289,6 +319,32 @@ public class Gui {
         return tokens[tokens.length - 1];
     }
 
+    /**
+     * Finds the identifier before the last word on the same line, used to predict the next token
+     * (e.g. "new" in "list = new Arr").
+     *
+     * @param text   The full text.
+     * @param prefix The last word, as returned by {@link #getLastWord(String)}.
+     * @return The previous identifier, or {@code null} if there is none on the line.
+     */
+    private String getPreviousWord(String text, String prefix) {
+        int end = text.length() - prefix.length();
+        while (end > 0 && !Character.isJavaIdentifierPart(text.charAt(end - 1))) {
+            if (text.charAt(end - 1) == '\n') {
+                return null;
+            }
+            end--;
+        }
+        int start = end;
+        while (start > 0 && Character.isJavaIdentifierPart(text.charAt(start - 1))) {
+            start--;
+        }
+        if (start == end || !Character.isJavaIdentifierStart(text.charAt(start))) {
+            return null;
+        }
+        return text.substring(start, end);
+    }
+
     /**
      * Replaces the last word in the {@link JTextPane} with the selected suggestion.
      *
@@ -296,15 +352,51 @@ public class Gui {
      * @param suggestion The suggestion to replace the last word with.
      */
     private void replaceLastWordInTextPane(JTextPane textPane, String suggestion) {
-        String fullText = textPane.getText();
-        int lastSpace = Math.max(fullText.lastIndexOf(' '), fullText.lastIndexOf('\n'));
-        if (lastSpace < 0) {
-            textPane.setText(suggestion + " ");
-        } else {
-            String newText = fullText.substring(0, lastSpace + 1) + suggestion + " ";
-            textPane.setText(newText);
+        // Edit only the last word, so document listeners see a one-line change instead of a new text
+        Document doc = textPane.getDocument();
+        try {
+            String fullText = doc.getText(0, doc.getLength());
+            int lastSpace = Math.max(fullText.lastIndexOf(' '), fullText.lastIndexOf('\n'));
+            doc.remove(lastSpace + 1, fullText.length() - lastSpace - 1);
+            doc.insertString(lastSpace + 1, suggestion + " ", null);
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
+        textPane.setCaretPosition(doc.getLength());
+    }
+
+    /**
+     * Returns the text of the document before the caret.
+     *
+     * @param textPane The text pane.
+     * @return The text up to the caret, or an empty string if it cannot be read.
+     */
+    private static String textBeforeCaret(JTextPane textPane) {
+        try {
+            return textPane.getDocument().getText(0, textPane.getCaretPosition());
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+            return "";
+        }
+    }
+
+    /**
+     * Replaces the part of a member name typed after the last dot with the selected member.
+     *
+     * @param textPane   The text pane where the replacement occurs.
+     * @param suggestion The member name to insert.
+     */
+    private void replaceMemberInTextPane(JTextPane textPane, String suggestion) {
+        Document doc = textPane.getDocument();
+        try {
+            String fullText = doc.getText(0, doc.getLength());
+            int lastDot = fullText.lastIndexOf('.');
+            doc.remove(lastDot + 1, fullText.length() - lastDot - 1);
+            doc.insertString(lastDot + 1, suggestion, null);
+        } catch (BadLocationException e) {
+            e.printStackTrace();
         }
-        textPane.setCaretPosition(textPane.getDocument().getLength());
+        textPane.setCaretPosition(doc.getLength());
     }
 
     /**
@@ -0,0 +1,185 @@
+package org.example.application;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link AutoCompleteTrie}.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+class AutoCompleteTrieTest {
+
+    /**
+     * Creates a Trie without a suggestion cache, so every query searches.
+     */
+    private static AutoCompleteTrie load(List<String> words, int score) {
+        AutoCompleteTrie autoComplete = new AutoCompleteTrie(0);
+        autoComplete.loadKeywords(words, score).join();
+        return autoComplete;
+    }
+
+    @Test
+    void topKReturnsTheHighestScoresFirst() {
+        AutoCompleteTrie autoComplete = load(Arrays.asList("parse", "print", "private"), 1);
+        autoComplete.loadKeywords(List.of("public"), 5).join();
+        autoComplete.loadKeywords(List.of("protected"), 3).join();
+
+        assertEquals(List.of("public", "protected"), autoComplete.suggest("p", 2));
+        assertEquals(List.of("public", "protected", "parse", "print", "private"), autoComplete.suggest("p", 10));
+    }
+
+    @Test
+    void equalScoresAreOrderedAlphabetically() {
+        AutoCompleteTrie autoComplete = load(Arrays.asList("stream", "static", "string", "super", "switch"), 0);
+
+        assertEquals(List.of("static", "stream", "string"), autoComplete.suggest("st", 20));
+        assertEquals(List.of("static", "stream"), autoComplete.suggest("st", 2));
+    }
+
+    @Test
+    void topKMatchesTheFullSortOnALargeVocabulary() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            words.add("item" + i);
+        }
+        AutoCompleteTrie autoComplete = new AutoCompleteTrie(0);
+        for (int i = 0; i < words.size(); i++) {
+            autoComplete.loadKeywords(List.of(words.get(i)), (i * 7919) % 100).join();
+        }
+
+        // The expected order: score descending, then alphabetical
+        List<String> expected = new ArrayList<>(words);
+        expected.sort((a, b) -> {
+            int scoreA = (words.indexOf(a) * 7919) % 100;
+            int scoreB = (words.indexOf(b) * 7919) % 100;
+            return scoreA != scoreB ? Integer.compare(scoreB, scoreA) : a.compareTo(b);
+        });
+        assertEquals(expected.subList(0, 25), autoComplete.suggest("item", 25));
+        assertEquals(expected.subList(0, 25), autoComplete.suggest("i", 25));
+    }
+
+    @Test
+    void loadingAnExistingWordKeepsTheHigherScore() {
+        AutoCompleteTrie autoComplete = load(Arrays.asList("length", "list"), 4);
+        autoComplete.loadKeywords(List.of("list"), 1).join();
+        autoComplete.loadKeywords(List.of("length"), 9).join();
+
+        assertEquals(List.of("length", "list"), autoComplete.suggest("l", 5));
+    }
+
+    @Test
+    void prefixMatchingIgnoresCase() {
+        AutoCompleteTrie autoComplete = load(Arrays.asList("String", "strictfp", "Stack"), 0);
+
+        // Typo matches such as "Stack" may follow, but only after every prefix match
+        List<String> found = autoComplete.suggest("str", 10);
+        assertTrue(found.subList(0, 2).containsAll(List.of("String", "strictfp")));
+    }
+
+    @Test
+    void onlyTheLatestRequestReachesItsCallback() throws Exception {
+        AutoCompleteTrie autoComplete = load(Arrays.asList("case", "catch", "char", "class", "const"), 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        List<String> answered = Collections.synchronizedList(new ArrayList<>());
+
+        String[] prefixes = {"c", "ca", "cat", "catc"};
+
+        // Requests are made on the Event Dispatch Thread, as by the editor, so no result can reach
+        // its callback before the last request has been made
+        SwingUtilities.invokeAndWait(() -> {
+            // The first request holds a query thread, so later ones are queued behind it
+            autoComplete.submitQuery(() -> {
+                awaitQuietly(release);
+                return "blocked";
+            }, answered::add);
+            for (String prefix : prefixes) {
+                autoComplete.getSuggestions(prefix, 5, words -> answered.add(prefix + "=" + words));
+            }
+            autoComplete.getSuggestions("cl", 5, words -> {
+                answered.add("cl=" + words);
+                delivered.countDown();
+            });
+        });
+        release.countDown();
+
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> { }); // lets any dropped result that was already posted run its check
+        assertEquals(List.of("cl=[class]"), answered);
+        assertEquals(prefixes.length + 1, autoComplete.getDroppedRequestCount());
+    }
+
+    @Test
+    void aSingleRequestIsDeliveredOnTheEventDispatchThread() throws Exception {
+        AutoCompleteTrie autoComplete = load(Arrays.asList("final", "finally", "float"), 0);
+        CountDownLatch delivered = new CountDownLatch(1);
+        boolean[] onEdt = new boolean[1];
+        List<String> answered = new ArrayList<>();
+
+        autoComplete.getSuggestions("fin", 5, words -> {
+            onEdt[0] = SwingUtilities.isEventDispatchThread();
+            answered.addAll(words);
+            delivered.countDown();
+        });
+
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        assertTrue(onEdt[0]);
+        assertEquals(List.of("final", "finally"), answered);
+        assertEquals(0, autoComplete.getDroppedRequestCount());
+    }
+
+    @Test
+    void fuzzySearchFindsWordsWithinTheEditBudget() {
+        AutoCompleteTrie autoComplete = load(Arrays.asList("public", "return", "String", "protected", "switch"), 0);
+
+        assertEquals(List.of("public"), autoComplete.suggestFuzzy("pubic", 1, 5));      // deletion
+        assertEquals(List.of("return"), autoComplete.suggestFuzzy("retrun", 1, 5));     // transposition
+        assertEquals(List.of("switch"), autoComplete.suggestFuzzy("swatch", 1, 5));     // substitution
+        assertEquals(List.of("String"), autoComplete.suggestFuzzy("strinng", 1, 5));    // insertion, ignoring case
+        assertEquals(List.of("protected"), autoComplete.suggestFuzzy("protcetd", 2, 5)); // two edits
+        assertTrue(autoComplete.suggestFuzzy("protcetd", 1, 5).isEmpty());
+        assertTrue(autoComplete.suggestFuzzy("xyzzy", 2, 5).isEmpty());
+    }
+
+    @Test
+    void fuzzySearchMatchesTheBeginningOfLongerWords() {
+        AutoCompleteTrie autoComplete = load(Arrays.asList("println", "printf", "private"), 0);
+        autoComplete.loadKeywords(List.of("printStackTrace"), 3).join();
+
+        List<String> found = autoComplete.suggestFuzzy("pirnt", 1, 5);
+        assertEquals("printStackTrace", found.get(0));
+        assertTrue(found.containsAll(List.of("printf", "println")));
+        assertFalse(found.contains("private"));
+    }
+
+    @Test
+    void suggestFallsBackToTypoMatchesAfterThePrefixMatches() {
+        AutoCompleteTrie autoComplete = load(Arrays.asList("return", "retain", "import"), 0);
+
+        assertEquals(List.of("return"), autoComplete.suggest("retrun", 5));
+        assertEquals(List.of("import"), autoComplete.suggest("imoprt", 5));
+        // Queries shorter than three characters are never corrected
+        assertTrue(autoComplete.suggest("ri", 5).isEmpty());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS), "The test never released the query thread");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
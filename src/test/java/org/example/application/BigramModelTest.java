@@ -0,0 +1,141 @@
+package org.example.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link BigramModel}.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+class BigramModelTest {
+
+    @Test
+    void predictsTheMostFrequentSuccessorsFirst() {
+        BigramModel model = new BigramModel();
+        model.train("public static void main(String[] args)\n"
+                + "public static int count;\n"
+                + "public class Main {\n"
+                + "public void run() {");
+
+        assertEquals(List.of("static", "class", "void"), model.predict("public", "", 5));
+        assertEquals(List.of("static"), model.predict("public", "st", 5));
+        assertEquals(2, model.getCount("public", "static"));
+    }
+
+    @Test
+    void aBigramWhoseCountDropsToZeroIsReclaimed() {
+        BigramModel model = new BigramModel();
+        String[] line = {"List", "names", "new", "ArrayList"};
+        model.add(line, 1);
+        model.add(line, 1);
+        assertEquals(3, model.size());
+        assertEquals(4, model.getTokenCount());
+
+        model.add(line, -1);
+        assertEquals(1, model.getCount("new", "ArrayList"));
+        model.add(line, -1);
+
+        assertEquals(0, model.getCount("new", "ArrayList"));
+        assertEquals(0, model.size());
+        assertEquals(0, model.getTokenCount());
+        assertTrue(model.predict("new", "", 5).isEmpty());
+    }
+
+    @Test
+    void halfTypedIdentifiersAreForgottenWhenTheLineIsRetyped() {
+        BigramModel model = new BigramModel();
+        model.add(new String[]{"new", "StringBuilder"}, 1);
+        // Each keystroke replaces the line's bigrams with those of the new text
+        String[] before = {};
+        for (String text : new String[]{"S", "St", "Str", "Stri", "String"}) {
+            String[] after = {"new", text};
+            model.add(after, 1);
+            model.add(before, -1);
+            before = after;
+        }
+
+        assertEquals(List.of("String", "StringBuilder"), model.predict("new", "", 5));
+        assertEquals(3, model.getTokenCount());
+    }
+
+    @Test
+    void removingCountsOfUnknownTokensChangesNothing() {
+        BigramModel model = new BigramModel();
+        model.add(new String[]{"int", "count"}, 1);
+
+        model.add(new String[]{"long", "total"}, -1);
+        model.add(new String[]{"int", "total"}, -1);
+
+        assertEquals(1, model.size());
+        assertEquals(2, model.getTokenCount());
+        assertEquals(1, model.getCount("int", "count"));
+    }
+
+    @Test
+    void randomAdditionsAndRemovalsMatchAReferenceCount() {
+        Random random = new Random(17);
+        String[] vocabulary = new String[40];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = "token" + i;
+        }
+        BigramModel model = new BigramModel();
+        Map<String, Integer> reference = new HashMap<>();
+        List<String[]> lines = new ArrayList<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            if (lines.isEmpty() || random.nextInt(3) != 0) {
+                String[] line = new String[1 + random.nextInt(5)];
+                for (int i = 0; i < line.length; i++) {
+                    line[i] = vocabulary[random.nextInt(vocabulary.length)];
+                }
+                lines.add(line);
+                model.add(line, 1);
+                count(reference, line, 1);
+            } else {
+                String[] line = lines.remove(random.nextInt(lines.size()));
+                model.add(line, -1);
+                count(reference, line, -1);
+            }
+        }
+        assertMatches(reference, model, vocabulary);
+
+        for (String[] line : lines) {
+            model.add(line, -1);
+        }
+        assertEquals(0, model.size());
+        assertEquals(0, model.getTokenCount());
+    }
+
+    private static void count(Map<String, Integer> reference, String[] line, int delta) {
+        for (int i = 1; i < line.length; i++) {
+            reference.merge(line[i - 1] + " " + line[i], delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    private static void assertMatches(Map<String, Integer> reference, BigramModel model, String[] vocabulary) {
+        Set<String> tokens = new HashSet<>();
+        for (String bigram : reference.keySet()) {
+            tokens.addAll(List.of(bigram.split(" ")));
+        }
+        assertEquals(reference.size(), model.size());
+        assertEquals(tokens.size(), model.getTokenCount());
+        for (String previous : vocabulary) {
+            for (String next : vocabulary) {
+                assertEquals(reference.getOrDefault(previous + " " + next, 0), model.getCount(previous, next),
+                        previous + " " + next);
+            }
+        }
+    }
+}
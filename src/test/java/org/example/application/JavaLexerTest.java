@@ -0,0 +1,141 @@
+package org.example.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link JavaLexer}.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+class JavaLexerTest {
+
+    private static final String[] TYPE_NAMES = {
+            "IDENTIFIER", "KEYWORD", "COMMENT", "STRING", "CHARACTER", "NUMBER", "ANNOTATION", "OPERATOR"
+    };
+
+    private final JavaLexer lexer = new JavaLexer();
+
+    /**
+     * Lexes a range and describes its tokens as "TYPE text".
+     */
+    private List<String> lex(String text, int start, int end, int state) {
+        lexer.reset(text, start, end, state);
+        List<String> tokens = new ArrayList<>();
+        while (lexer.next()) {
+            tokens.add(TYPE_NAMES[lexer.getTokenType()] + " "
+                    + text.substring(lexer.getTokenStart(), lexer.getTokenEnd()));
+        }
+        return tokens;
+    }
+
+    private List<String> lex(String text) {
+        return lex(text, 0, text.length(), JavaLexer.STATE_CODE);
+    }
+
+    @Test
+    void splitsALineIntoTokens() {
+        assertEquals(List.of(
+                "ANNOTATION @Override", "KEYWORD public", "IDENTIFIER String", "IDENTIFIER toString",
+                "OPERATOR (", "OPERATOR )", "OPERATOR {", "KEYWORD return", "STRING \"a\\\"b\"",
+                "OPERATOR +", "CHARACTER 'c'", "OPERATOR +", "NUMBER 0x1F", "OPERATOR ;", "COMMENT // done"
+        ), lex("@Override public String toString() { return \"a\\\"b\" + 'c' + 0x1F; // done"));
+        assertEquals(JavaLexer.STATE_CODE, lexer.getState());
+    }
+
+    @Test
+    void recognizesEveryKeywordAndNothingElse() {
+        for (int k = 0; k < JavaLexer.KEYWORDS.length; k++) {
+            String keyword = JavaLexer.KEYWORDS[k];
+            assertEquals(List.of("KEYWORD " + keyword), lex(keyword));
+            assertEquals(k, lexer.getKeywordIndex());
+            assertEquals(keyword, lexer.getKeyword());
+            assertEquals(k, JavaLexer.indexOfKeyword(keyword));
+        }
+        assertEquals(List.of("IDENTIFIER classes", "IDENTIFIER Int", "IDENTIFIER nul", "IDENTIFIER $if", "IDENTIFIER größe"),
+                lex("classes Int nul $if größe"));
+        assertEquals(-1, lexer.getKeywordIndex());
+    }
+
+    @Test
+    void scansNumbersWithTheirSuffixesAndExponents() {
+        assertEquals(List.of("NUMBER 1_000L", "NUMBER 1.5e-3f", "NUMBER .5", "NUMBER 0x1p-3", "NUMBER 0b1010"),
+                lex("1_000L 1.5e-3f .5 0x1p-3 0b1010"));
+        assertEquals(List.of("IDENTIFIER a", "OPERATOR -", "NUMBER 1", "OPERATOR .", "IDENTIFIER x"),
+                lex("a-1 .x"));
+    }
+
+    @Test
+    void qualifiedAnnotationsAreOneToken() {
+        assertEquals(List.of("ANNOTATION @java.lang.Override", "ANNOTATION @SuppressWarnings", "OPERATOR (",
+                "STRING \"x\"", "OPERATOR )", "ANNOTATION @Deprecated", "OPERATOR ."),
+                lex("@java.lang.Override @SuppressWarnings(\"x\") @Deprecated."));
+    }
+
+    @Test
+    void anUnterminatedStringEndsAtTheEndOfTheLine() {
+        assertEquals(List.of("STRING \"open", "IDENTIFIER next"), lex("\"open\nnext"));
+        assertEquals(JavaLexer.STATE_CODE, lexer.getState());
+    }
+
+    @Test
+    void aBlockCommentResumesOnTheNextLine() {
+        assertEquals(List.of("KEYWORD int", "IDENTIFIER a", "COMMENT /* starts"), lex("int a /* starts"));
+        assertEquals(JavaLexer.STATE_BLOCK_COMMENT, lexer.getState());
+
+        assertEquals(List.of("COMMENT still inside"), lex("still inside", 0, 12, JavaLexer.STATE_BLOCK_COMMENT));
+        assertEquals(JavaLexer.STATE_BLOCK_COMMENT, lexer.getState());
+
+        assertEquals(List.of("COMMENT ends */", "OPERATOR ;"), lex("ends */ ;", 0, 9, JavaLexer.STATE_BLOCK_COMMENT));
+        assertEquals(JavaLexer.STATE_CODE, lexer.getState());
+    }
+
+    @Test
+    void aTextBlockResumesOnTheNextLine() {
+        assertEquals(List.of("IDENTIFIER s", "OPERATOR =", "STRING \"\"\""), lex("s = \"\"\""));
+        assertEquals(JavaLexer.STATE_TEXT_BLOCK, lexer.getState());
+
+        String escaped = "quote \\\"\"\" stays inside";
+        assertEquals(List.of("STRING " + escaped), lex(escaped, 0, escaped.length(), JavaLexer.STATE_TEXT_BLOCK));
+        assertEquals(JavaLexer.STATE_TEXT_BLOCK, lexer.getState());
+
+        assertEquals(List.of("STRING   \"\"\"", "OPERATOR ;"), lex("  \"\"\";", 0, 6, JavaLexer.STATE_TEXT_BLOCK));
+        assertEquals(JavaLexer.STATE_CODE, lexer.getState());
+    }
+
+    @Test
+    void lexingLineByLineMatchesLexingTheWholeText() {
+        String text = "/** Doc\n * comment */\n@Deprecated\nclass A {\n"
+                + "    String s = \"\"\"\n        text /* not a comment */\n        \"\"\";\n"
+                + "    int b = 1; /* trailing\n still */ long c = 0L;\n"
+                + "    // \"\"\" not a text block\n    char d = '\\'';\n}\n";
+        List<String> whole = lex(text);
+
+        List<String> byLine = new ArrayList<>();
+        int state = JavaLexer.STATE_CODE;
+        for (int start = 0; start < text.length(); ) {
+            int end = text.indexOf('\n', start) + 1;
+            lexer.reset(text, start, end, state);
+            boolean first = true;
+            while (lexer.next()) {
+                String part = text.substring(lexer.getTokenStart(), lexer.getTokenEnd());
+                if (first && state != JavaLexer.STATE_CODE) {
+                    // The rest of a token from the line before
+                    byLine.set(byLine.size() - 1, byLine.get(byLine.size() - 1) + part);
+                } else {
+                    byLine.add(TYPE_NAMES[lexer.getTokenType()] + " " + part);
+                }
+                first = false;
+            }
+            state = lexer.getState();
+            start = end;
+        }
+
+        assertEquals(whole, byLine);
+    }
+}
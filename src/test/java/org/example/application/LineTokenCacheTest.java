@@ -0,0 +1,153 @@
+package org.example.application;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link LineTokenCache}.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+class LineTokenCacheTest {
+
+    private static int[] tokens(int... values) {
+        return values;
+    }
+
+    /**
+     * Creates a cache of lines whose tokens are {i, i} and which all end in code.
+     */
+    private static LineTokenCache lexed(int lineCount) {
+        LineTokenCache cache = new LineTokenCache(lineCount);
+        for (int line = 0; line < lineCount; line++) {
+            cache.set(line, tokens(line, line), JavaLexer.STATE_CODE);
+            cache.setStyled(line);
+        }
+        return cache;
+    }
+
+    @Test
+    void aNewCacheKnowsOnlyTheStartStateOfTheFirstLine() {
+        LineTokenCache cache = new LineTokenCache(3);
+
+        assertEquals(3, cache.size());
+        assertEquals(JavaLexer.STATE_CODE, cache.getStartState(0));
+        assertEquals(LineTokenCache.UNKNOWN, cache.getStartState(1));
+        assertNull(cache.getTokens(2));
+        assertFalse(cache.needsStyling(0));
+        assertEquals(-1, cache.nextToStyle(0));
+    }
+
+    @Test
+    void theEndStateOfALineIsTheStartStateOfTheNext() {
+        LineTokenCache cache = new LineTokenCache(2);
+
+        cache.set(0, tokens(0, 5), JavaLexer.STATE_BLOCK_COMMENT);
+        cache.set(1, LineTokenCache.NO_TOKENS, JavaLexer.STATE_TEXT_BLOCK); // the last line has no next
+
+        assertEquals(JavaLexer.STATE_BLOCK_COMMENT, cache.getStartState(1));
+        assertSame(LineTokenCache.NO_TOKENS, cache.getTokens(1));
+    }
+
+    @Test
+    void onlyLinesWhoseTokensChangedNeedStylingAgain() {
+        LineTokenCache cache = lexed(3);
+
+        cache.set(0, tokens(0, 0), JavaLexer.STATE_CODE);
+        cache.set(1, tokens(1, 7), JavaLexer.STATE_CODE);
+
+        assertFalse(cache.needsStyling(0));
+        assertTrue(cache.needsStyling(1));
+        assertEquals(1, cache.nextToStyle(0));
+        assertEquals(-1, cache.nextToStyle(2));
+        cache.setStyled(1);
+        assertEquals(-1, cache.nextToStyle(0));
+    }
+
+    @Test
+    void invalidatingALineKeepsItsStartState() {
+        LineTokenCache cache = lexed(3);
+        cache.set(0, tokens(0, 0), JavaLexer.STATE_BLOCK_COMMENT);
+
+        cache.invalidate(1);
+
+        assertNull(cache.getTokens(1));
+        assertEquals(JavaLexer.STATE_BLOCK_COMMENT, cache.getStartState(1));
+        assertFalse(cache.needsStyling(1));
+    }
+
+    @Test
+    void addedLinesAreNotLexedAndTheLinesAfterThemKeepTheirTokens() {
+        LineTokenCache cache = lexed(4);
+        cache.set(1, tokens(1, 1), JavaLexer.STATE_TEXT_BLOCK);
+
+        cache.splice(1, 1, 3); // line 1 replaced by three lines
+
+        assertEquals(6, cache.size());
+        assertArrayEquals(tokens(0, 0), cache.getTokens(0));
+        for (int line = 1; line <= 3; line++) {
+            assertNull(cache.getTokens(line));
+            assertEquals(LineTokenCache.UNKNOWN, cache.getStartState(line));
+        }
+        assertArrayEquals(tokens(2, 2), cache.getTokens(4));
+        assertEquals(JavaLexer.STATE_TEXT_BLOCK, cache.getStartState(4));
+        assertArrayEquals(tokens(3, 3), cache.getTokens(5));
+        assertFalse(cache.needsStyling(5));
+    }
+
+    @Test
+    void removedLinesAreDroppedAndTheLinesAfterThemMoveUp() {
+        LineTokenCache cache = lexed(5);
+
+        cache.splice(1, 3, 1); // lines 1 to 3 joined into one
+
+        assertEquals(3, cache.size());
+        assertNull(cache.getTokens(1));
+        assertArrayEquals(tokens(4, 4), cache.getTokens(2));
+
+        cache.splice(0, 3, 0);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void theFirstLineAlwaysStartsInCode() {
+        LineTokenCache cache = lexed(2);
+
+        cache.splice(0, 1, 2);
+
+        assertEquals(JavaLexer.STATE_CODE, cache.getStartState(0));
+        assertEquals(LineTokenCache.UNKNOWN, cache.getStartState(1));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        LineTokenCache cache = lexed(10);
+
+        cache.splice(5, 0, 100);
+
+        assertEquals(110, cache.size());
+        assertArrayEquals(tokens(9, 9), cache.getTokens(109));
+        assertNull(cache.getTokens(104));
+    }
+
+    @Test
+    void packedTokensKeepTheirLengthTypeAndStyle() {
+        int[] line = {4, LineTokenCache.pack(1 << 22, JavaLexer.OPERATOR, 15), 12, LineTokenCache.pack(3, 0, 0)};
+
+        assertEquals(2, LineTokenCache.tokenCount(line));
+        assertEquals(4, LineTokenCache.tokenStart(line, 0));
+        assertEquals(1 << 22, LineTokenCache.tokenLength(line, 0));
+        assertEquals(JavaLexer.OPERATOR, LineTokenCache.tokenType(line, 0));
+        assertEquals(15, LineTokenCache.tokenStyle(line, 0));
+        assertEquals(12, LineTokenCache.tokenStart(line, 1));
+        assertEquals(3, LineTokenCache.tokenLength(line, 1));
+        assertEquals(0, LineTokenCache.tokenStyle(line, 1));
+    }
+}
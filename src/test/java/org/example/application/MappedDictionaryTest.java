@@ -0,0 +1,136 @@
+package org.example.application;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link MappedDictionary}.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+class MappedDictionaryTest {
+
+    private static final List<String> WORDS = Arrays.asList(
+            "ArrayList", "HashMap", "hashCode", "String", "StringBuilder", "StringBuffer", "System", "Thread");
+
+    private static final int TRAILER_SIZE = 16;
+
+    @TempDir
+    Path directory;
+
+    private Path writeWords() throws IOException {
+        Path file = directory.resolve("types.dict");
+        AutoCompleteTrie.writeDictionary(file, "v1", WORDS, 2);
+        return file;
+    }
+
+    @Test
+    void aWrittenDictionaryOpensWithItsTagAndWords() throws IOException {
+        MappedDictionary dictionary = MappedDictionary.open(writeWords());
+
+        assertEquals("v1", dictionary.getTag());
+        List<String> words = dictionary.getWords();
+        assertEquals(WORDS.size(), words.size());
+        assertTrue(words.containsAll(WORDS));
+    }
+
+    @Test
+    void aMountedDictionaryAnswersPrefixAndCamelHumpQueries() throws IOException {
+        AutoCompleteTrie autoComplete = new AutoCompleteTrie(0);
+        autoComplete.mountDictionary(MappedDictionary.open(writeWords()));
+
+        assertEquals(List.of("String", "StringBuffer", "StringBuilder"), autoComplete.suggest("Str", 10));
+        List<String> camel = autoComplete.suggest("SB", 10);
+        assertEquals(2, camel.size());
+        assertTrue(camel.containsAll(List.of("StringBuffer", "StringBuilder")));
+        assertEquals(List.of("hashCode"), autoComplete.suggest("hC", 10));
+    }
+
+    @Test
+    void openIfTaggedSkipsMissingAndOutdatedFiles() throws IOException {
+        Path file = writeWords();
+
+        assertNotNull(MappedDictionary.openIfTagged(file, "v1"));
+        assertNull(MappedDictionary.openIfTagged(file, "v2"));
+        assertNull(MappedDictionary.openIfTagged(directory.resolve("missing.dict"), "v1"));
+    }
+
+    @Test
+    void everyTruncatedFileIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(writeWords());
+
+        for (int length = 0; length < bytes.length; length++) {
+            Path truncated = write("truncated.dict", Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> MappedDictionary.open(truncated), "length " + length);
+        }
+    }
+
+    @Test
+    void aFileWithoutTheMagicNumberIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(writeWords());
+        bytes[0] ^= 1;
+
+        IOException e = assertThrows(IOException.class, () -> MappedDictionary.open(write("magic.dict", bytes)));
+        assertTrue(e.getMessage().startsWith("Not a dictionary file"));
+    }
+
+    @Test
+    void anUnknownFormatVersionIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(writeWords());
+        ByteBuffer.wrap(bytes).putInt(4, 1);
+
+        IOException e = assertThrows(IOException.class, () -> MappedDictionary.open(write("version.dict", bytes)));
+        assertTrue(e.getMessage().startsWith("Unsupported dictionary format version 1"));
+    }
+
+    @Test
+    void aCorruptTrailerIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(writeWords());
+        int trailer = bytes.length - TRAILER_SIZE;
+        int[] deltas = {-1, 1, -6, 6, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+        // Moving any of the root, words or keys offsets, or changing the key count, breaks the layout
+        for (int field = 0; field < 4; field++) {
+            for (int delta : deltas) {
+                byte[] corrupt = bytes.clone();
+                ByteBuffer buffer = ByteBuffer.wrap(corrupt);
+                buffer.putInt(trailer + 4 * field, buffer.getInt(trailer + 4 * field) + delta);
+                Path file = write("corrupt.dict", corrupt);
+                IOException e = assertThrows(IOException.class, () -> MappedDictionary.open(file),
+                        "field " + field + ", delta " + delta);
+                assertTrue(e.getMessage().startsWith("Corrupt dictionary file"), e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    void postingsPointingOutsideTheWordsAreRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(writeWords());
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int trailer = bytes.length - TRAILER_SIZE;
+        int wordsOffset = buffer.getInt(trailer + 4);
+        int lastPosting = trailer - 4;
+        buffer.putInt(lastPosting, wordsOffset - 1);
+
+        IOException e = assertThrows(IOException.class, () -> MappedDictionary.open(write("postings.dict", bytes)));
+        assertTrue(e.getMessage().startsWith("Corrupt dictionary file"));
+    }
+
+    private Path write(String name, byte[] bytes) throws IOException {
+        return Files.write(directory.resolve(name), bytes);
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for {@link SuggestionCache} and how {@link AutoCompleteTrie} keeps it up to date.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+class SuggestionCacheTest {
+
+    @Test
+    void aListCachedForALargerLimitAnswersSmallerOnes() {
+        SuggestionCache cache = new SuggestionCache(4);
+        cache.put("pr", 3, List.of("print", "private", "protected"), false, cache.getVersion());
+        cache.put("sw", 3, List.of("switch"), false, cache.getVersion());
+
+        assertEquals(List.of("print", "private"), cache.get("pr", 2));
+        assertNull(cache.get("pr", 5));               // there may be more than three matches
+        assertEquals(List.of("switch"), cache.get("sw", 5)); // all the matches are known
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void onlyThePrefixesOfInsertedWordsAndApproximateEntriesAreInvalidated() {
+        SuggestionCache cache = new SuggestionCache(4);
+        cache.put("pr", 5, List.of("print"), false, cache.getVersion());
+        cache.put("st", 5, List.of("static"), false, cache.getVersion());
+        cache.put("sB", 5, List.of("StringBuilder"), true, cache.getVersion());
+
+        cache.invalidate(prefix -> "private".startsWith(prefix));
+
+        assertNull(cache.get("pr", 5));
+        assertNull(cache.get("sB", 5));
+        assertEquals(List.of("static"), cache.get("st", 5));
+        assertEquals(2, cache.getInvalidationCount());
+    }
+
+    @Test
+    void aResultSearchedBeforeAnInvalidationIsNotStored() {
+        SuggestionCache cache = new SuggestionCache(4);
+        long version = cache.getVersion();
+
+        cache.invalidate(prefix -> false);
+        cache.put("pr", 5, List.of("print"), false, version);
+
+        assertNull(cache.get("pr", 5));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void theLeastRecentlyUsedPrefixIsEvicted() {
+        SuggestionCache cache = new SuggestionCache(2);
+        cache.put("a", 5, List.of("abstract"), false, cache.getVersion());
+        cache.put("b", 5, List.of("boolean"), false, cache.getVersion());
+        cache.get("a", 5);
+        cache.put("c", 5, List.of("class"), false, cache.getVersion());
+
+        assertEquals(List.of("abstract"), cache.get("a", 5));
+        assertNull(cache.get("b", 5));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void loadingAWordRefreshesTheCachedPrefixesItStartsWith() {
+        AutoCompleteTrie autoComplete = new AutoCompleteTrie(16);
+        autoComplete.loadKeywords(Arrays.asList("print", "switch"), 0).join();
+        SuggestionCache cache = autoComplete.getSuggestionCache();
+
+        assertEquals(List.of("print"), autoComplete.suggest("pr", 5));
+        assertEquals(List.of("switch"), autoComplete.suggest("sw", 5));
+        autoComplete.loadKeywords(List.of("private"), 5).join();
+
+        assertEquals(List.of("private", "print"), autoComplete.suggest("pr", 5));
+        assertEquals(List.of("switch"), autoComplete.suggest("sw", 5));
+        assertEquals(1, cache.getHitCount()); // "sw" was kept, "pr" was searched again
+        assertEquals(1, cache.getInvalidationCount());
+    }
+
+    @Test
+    void mountingADictionaryInvalidatesEveryEntry() {
+        AutoCompleteTrie autoComplete = new AutoCompleteTrie(16);
+        autoComplete.loadKeywords(Arrays.asList("print", "switch"), 0).join();
+        autoComplete.suggest("pr", 5);
+        autoComplete.suggest("sw", 5);
+
+        autoComplete.mountDictionary(null);
+
+        SuggestionCache cache = autoComplete.getSuggestionCache();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getInvalidationCount());
+    }
+}
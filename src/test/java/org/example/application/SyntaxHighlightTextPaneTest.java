@@ -0,0 +1,166 @@
+package org.example.application;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Tests for {@link SyntaxHighlightTextPane}: the lines lexed after an edit, and the styles left by
+ * many edits compared with those of a pane highlighting the final text at once.
+ *
+ * @author [Blotor Raul]
+ * @version 1.0
+ */
+class SyntaxHighlightTextPaneTest {
+
+    private static final String[] FRAGMENTS = {
+            "/*", "*/", "\"\"\"", "\"", "'", "//", "\\", "\n", "\n\n", "public ", "class ", "return x;",
+            "import java.util.List;", "@Override", "0x1F", "text", "  "
+    };
+
+    private static final String SAMPLE = "import java.util.List;\n\n"
+            + "/** A sample. */\n"
+            + "@Deprecated\n"
+            + "public class Sample {\n"
+            + "    private static final String TEXT = \"\"\"\n"
+            + "        inside a text block\n"
+            + "        \"\"\";\n"
+            + "    int count(List<String> items) {\n"
+            + "        return items.size(); // the count\n"
+            + "    }\n"
+            + "}\n";
+
+    @Test
+    void anEditThatKeepsTheStateLexesOneLine() throws Exception {
+        SyntaxHighlightTextPane pane = onEdt(SyntaxHighlightTextPane::new);
+        onEdt(() -> insert(pane, 0, "int a;\n".repeat(1000)));
+        awaitHighlighted(pane);
+
+        long before = onEdt(pane::getLinesLexed);
+        onEdt(() -> insert(pane, 500 * 7 + 4, "b"));
+        awaitHighlighted(pane);
+
+        assertEquals(before + 1, (long) onEdt(pane::getLinesLexed));
+    }
+
+    @Test
+    void anEditThatChangesTheStateLexesUntilTheStateIsTheSameAgain() throws Exception {
+        SyntaxHighlightTextPane pane = onEdt(SyntaxHighlightTextPane::new);
+        onEdt(() -> insert(pane, 0, "int a;\n".repeat(1000)));
+        awaitHighlighted(pane);
+
+        // Opening a comment changes the state at the end of every following line, up to the empty last one
+        long before = onEdt(pane::getLinesLexed);
+        onEdt(() -> insert(pane, 500 * 7, "/*"));
+        awaitHighlighted(pane);
+        assertEquals(before + 501, (long) onEdt(pane::getLinesLexed));
+
+        // Closing it two lines further changes them back from there on
+        before = onEdt(pane::getLinesLexed);
+        onEdt(() -> insert(pane, 502 * 7 + 2, "*/"));
+        awaitHighlighted(pane);
+        assertEquals(before + 499, (long) onEdt(pane::getLinesLexed));
+    }
+
+    @Test
+    void randomEditsLeaveTheSameStylesAsAFreshPane() throws Exception {
+        SyntaxHighlightTextPane pane = onEdt(SyntaxHighlightTextPane::new);
+        onEdt(() -> insert(pane, 0, SAMPLE));
+        Random random = new Random(24);
+
+        for (int edit = 1; edit <= 400; edit++) {
+            int choice = random.nextInt(10);
+            onEdt(() -> {
+                Document doc = pane.getDocument();
+                int offset = random.nextInt(doc.getLength() + 1);
+                if (choice < 7 || doc.getLength() == 0) {
+                    doc.insertString(offset, FRAGMENTS[random.nextInt(FRAGMENTS.length)], null);
+                } else {
+                    doc.remove(offset, Math.min(doc.getLength() - offset, 1 + random.nextInt(10)));
+                }
+                return null;
+            });
+            // Let some edits be lexed on their own, others together with the next ones
+            if (random.nextInt(4) == 0) {
+                Thread.sleep(random.nextInt(3));
+            }
+            if (edit % 100 == 0) {
+                assertSameStylesAsFreshPane(pane);
+            }
+        }
+    }
+
+    private static void assertSameStylesAsFreshPane(SyntaxHighlightTextPane pane) throws Exception {
+        String text = onEdt(() -> pane.getDocument().getText(0, pane.getDocument().getLength()));
+        SyntaxHighlightTextPane fresh = onEdt(SyntaxHighlightTextPane::new);
+        onEdt(() -> insert(fresh, 0, text));
+        awaitHighlighted(pane);
+        awaitHighlighted(fresh);
+
+        String[] expected = onEdt(() -> styles(fresh));
+        String[] actual = onEdt(() -> styles(pane));
+        assertNotEquals(0, expected.length);
+        assertArrayEquals(expected, actual, "Styles differ for the text:\n" + text);
+    }
+
+    /**
+     * Describes the style of every character by its color and weight.
+     */
+    private static String[] styles(SyntaxHighlightTextPane pane) {
+        StyledDocument doc = pane.getStyledDocument();
+        String[] styles = new String[doc.getLength()];
+        for (int i = 0; i < styles.length; i++) {
+            AttributeSet attributes = doc.getCharacterElement(i).getAttributes();
+            styles[i] = StyleConstants.getForeground(attributes).getRGB()
+                    + (StyleConstants.isBold(attributes) ? " bold" : "");
+        }
+        return styles;
+    }
+
+    private static Void insert(SyntaxHighlightTextPane pane, int offset, String text) throws BadLocationException {
+        pane.getDocument().insertString(offset, text, null);
+        return null;
+    }
+
+    /**
+     * Waits until the pane has lexed and styled everything, including the lines left to the idle styler.
+     */
+    private static void awaitHighlighted(SyntaxHighlightTextPane pane) throws Exception {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (onEdt(pane::isHighlightPending)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("The pane did not finish highlighting");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static <T> T onEdt(Callable<T> task) throws Exception {
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                result.set(task.call());
+            } catch (Exception e) {
+                error.set(e);
+            }
+        });
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return result.get();
+    }
+}